@@ -4,7 +4,6 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
-import omtteam.omlib.handler.OMLibEventHandler;
 import omtteam.omlib.util.world.WorldUtil;
 
 import javax.annotation.Nonnull;
@@ -50,14 +49,18 @@ public interface INetworkTile {
     @Nonnull
     BlockPos getPosition();
 
+    /**
+     * Merges the networks of all network tiles touching pos into the given network.
+     * Only the direct neighbours are looked at, their networks already contain everything connected to them.
+     */
     default void recursAddDevice(World world, OMLibNetwork network, BlockPos pos, @Nullable EnumFacing from) {
         if (world.isBlockLoaded(pos)) {
             for (EnumFacing facing : EnumFacing.VALUES) {
                 TileEntity te = world.getTileEntity(pos.offset(facing));
-                if (!facing.equals(from) && te instanceof INetworkTile & te != null) {
+                if (!facing.equals(from) && te instanceof INetworkTile) {
                     OMLibNetwork remoteNetwork = ((INetworkTile) te).getNetwork();
                     if (remoteNetwork != null && !remoteNetwork.getUuid().equals(network.getUuid())) {
-                        remoteNetwork.mergeNetwork(network);
+                        network.mergeNetwork(remoteNetwork);
                     }
                 }
             }
@@ -68,18 +71,28 @@ public interface INetworkTile {
         OMLibNetwork network = new OMLibNetwork(world);
         network.addDevice(this);
         recursAddDevice(world, network, this.getPosition(), null);
-        OMLibEventHandler.getInstance().registerNetwork(network);
         return network;
     }
 
     /**
      * Call this when building networks (f.ex. on world load)
+     * Devices still recorded in the NetworkSavedData rejoin their saved network without looking at their neighbours.
+     * Touching networks are merged into the largest of them, so joining a small network onto a large one
+     * only moves the devices of the small one.
      *
      * @param world       the world the device is in.
      * @param pos         the position of the device.
      * @param networkName the name of the network (only for controller)
      */
     default void scan(World world, BlockPos pos, String networkName) {
+        OMLibNetwork saved = OMLibNetwork.restore(world, pos);
+        if (saved != null && saved.addDevice(this)) {
+            this.setNetwork(saved);
+            if (!networkName.isEmpty()) {
+                saved.setName(networkName);
+            }
+            return;
+        }
         List<INetworkTile> list = this.getTouchingNetworkTiles(world, pos);
         List<OMLibNetwork> networks = new ArrayList<>();
         OMLibNetwork network;
@@ -90,21 +103,22 @@ public interface INetworkTile {
         }
         if (networks.isEmpty()) {
             network = this.createNetwork(world);
-            network.addDevice(this);
             this.setNetwork(network);
-        } else if (networks.size() == 1) {
-            network = networks.get(0);
-            if (network.addDevice(this)) {
-                this.setNetwork(network);
-            }
         } else {
             network = networks.get(0);
-            for (int i = 1; i < networks.size(); i++) {
-                network.mergeNetwork(networks.get(i));
-                if (network.addDevice(this)) {
-                    this.setNetwork(network);
+            for (OMLibNetwork candidate : networks) {
+                if (candidate.getAllDevices().size() > network.getAllDevices().size()) {
+                    network = candidate;
+                }
+            }
+            for (OMLibNetwork other : networks) {
+                if (other != network) {
+                    network.mergeNetwork(other);
                 }
             }
+            if (network.addDevice(this)) {
+                this.setNetwork(network);
+            }
         }
         if (!networkName.isEmpty()) {
             network.setName(networkName);
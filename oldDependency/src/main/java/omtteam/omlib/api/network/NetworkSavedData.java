@@ -0,0 +1,211 @@
+package omtteam.omlib.api.network;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.storage.MapStorage;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.util.Constants;
+import omtteam.omlib.util.player.Player;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This Class stores which device positions belong to which OMLibNetwork, per dimension.
+ * OMLibNetwork keeps it up to date whenever devices join or leave, networks merge or split.
+ * On load a device whose position is still recorded joins its saved network directly (see OMLibNetwork.restore())
+ * instead of scanning and merging its way through the neighbours, the networks are thereby restored chunk by chunk.
+ * Connectivity checks use the recorded positions as well, so devices in unloaded chunks still count as connected.
+ */
+public class NetworkSavedData extends WorldSavedData {
+    private static final String NAME = "omlib_networks";
+
+    private final Map<UUID, Record> records = new HashMap<>();
+    private final Long2ObjectOpenHashMap<UUID> networkByPos = new Long2ObjectOpenHashMap<>();
+
+    public NetworkSavedData(String name) {
+        super(name);
+    }
+
+    /**
+     * @param world the world
+     * @return the network data of the worlds dimension, null on the client
+     */
+    @Nullable
+    public static NetworkSavedData get(@Nullable World world) {
+        if (world == null || world.isRemote) {
+            return null;
+        }
+        MapStorage storage = world.getPerWorldStorage();
+        NetworkSavedData data = (NetworkSavedData) storage.getOrLoadData(NetworkSavedData.class, NAME);
+        if (data == null) {
+            data = new NetworkSavedData(NAME);
+            storage.setData(NAME, data);
+        }
+        return data;
+    }
+
+    @Nullable
+    UUID getNetworkAt(BlockPos pos) {
+        return networkByPos.get(pos.toLong());
+    }
+
+    @Nullable
+    Record getRecord(UUID uuid) {
+        return records.get(uuid);
+    }
+
+    boolean isMember(UUID uuid, BlockPos pos) {
+        return uuid.equals(networkByPos.get(pos.toLong()));
+    }
+
+    /**
+     * @return the recorded device positions of a network (as BlockPos.toLong()), must not be modified
+     */
+    LongSet getMembers(UUID uuid) {
+        Record record = records.get(uuid);
+        return record != null ? record.devices : new LongOpenHashSet();
+    }
+
+    void setMember(BlockPos pos, OMLibNetwork network, boolean controller) {
+        long key = pos.toLong();
+        UUID old = networkByPos.put(key, network.getUuid());
+        if (old != null && !old.equals(network.getUuid())) {
+            removeFromRecord(old, key);
+        }
+        Record record = records.get(network.getUuid());
+        if (record == null) {
+            record = new Record();
+            record.name = network.getName();
+            record.owner = network.getOwner();
+            records.put(network.getUuid(), record);
+        }
+        record.devices.add(key);
+        if (controller) {
+            record.controller = key;
+        }
+        markDirty();
+    }
+
+    void removeMember(BlockPos pos) {
+        long key = pos.toLong();
+        UUID old = networkByPos.remove(key);
+        if (old != null) {
+            removeFromRecord(old, key);
+            markDirty();
+        }
+    }
+
+    /**
+     * Moves all positions still recorded for the network from to the network to.
+     */
+    void moveMembers(UUID from, OMLibNetwork to) {
+        Record record = records.get(from);
+        if (record == null) {
+            return;
+        }
+        long[] keys = record.devices.toLongArray();
+        for (long key : keys) {
+            setMember(BlockPos.fromLong(key), to, key == record.controller);
+        }
+    }
+
+    void updateNetwork(OMLibNetwork network) {
+        Record record = records.get(network.getUuid());
+        if (record != null) {
+            record.name = network.getName();
+            record.owner = network.getOwner();
+            markDirty();
+        }
+    }
+
+    private void removeFromRecord(UUID uuid, long key) {
+        Record record = records.get(uuid);
+        if (record != null) {
+            record.devices.remove(key);
+            if (record.controller == key) {
+                record.controller = Record.NO_CONTROLLER;
+            }
+            if (record.devices.isEmpty()) {
+                records.remove(uuid);
+            }
+        }
+    }
+
+    @Override
+    public void readFromNBT(NBTTagCompound nbt) {
+        records.clear();
+        networkByPos.clear();
+        NBTTagList list = nbt.getTagList("networks", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound tag = list.getCompoundTagAt(i);
+            UUID uuid = tag.getUniqueId("uuid");
+            Record record = new Record();
+            record.name = tag.hasKey("name") ? tag.getString("name") : null;
+            record.owner = tag.hasKey("owner") ? Player.readFromNBT(tag.getCompoundTag("owner")) : null;
+            record.controller = tag.hasKey("controller") ? tag.getLong("controller") : Record.NO_CONTROLLER;
+            int[] positions = tag.getIntArray("devices");
+            for (int j = 0; j + 2 < positions.length; j += 3) {
+                long key = new BlockPos(positions[j], positions[j + 1], positions[j + 2]).toLong();
+                record.devices.add(key);
+                networkByPos.put(key, uuid);
+            }
+            if (!record.devices.isEmpty()) {
+                records.put(uuid, record);
+            }
+        }
+    }
+
+    @Override
+    public NBTTagCompound writeToNBT(NBTTagCompound compound) {
+        NBTTagList list = new NBTTagList();
+        for (Map.Entry<UUID, Record> entry : records.entrySet()) {
+            Record record = entry.getValue();
+            NBTTagCompound tag = new NBTTagCompound();
+            tag.setUniqueId("uuid", entry.getKey());
+            if (record.name != null) {
+                tag.setString("name", record.name);
+            }
+            if (record.owner != null) {
+                tag.setTag("owner", record.owner.writeToNBT(new NBTTagCompound()));
+            }
+            if (record.controller != Record.NO_CONTROLLER) {
+                tag.setLong("controller", record.controller);
+            }
+            int[] positions = new int[record.devices.size() * 3];
+            int i = 0;
+            for (LongIterator iterator = record.devices.iterator(); iterator.hasNext(); ) {
+                BlockPos pos = BlockPos.fromLong(iterator.nextLong());
+                positions[i++] = pos.getX();
+                positions[i++] = pos.getY();
+                positions[i++] = pos.getZ();
+            }
+            tag.setIntArray("devices", positions);
+            list.appendTag(tag);
+        }
+        compound.setTag("networks", list);
+        return compound;
+    }
+
+    /**
+     * This Class is the saved state of one network.
+     */
+    static class Record {
+        private static final long NO_CONTROLLER = Long.MIN_VALUE;
+
+        private final LongOpenHashSet devices = new LongOpenHashSet();
+        @Nullable
+        String name;
+        @Nullable
+        Player owner;
+        long controller = NO_CONTROLLER;
+    }
+}
@@ -1,11 +1,15 @@
 package omtteam.omlib.api.network;
 
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import omtteam.omlib.handler.OMConfig;
 import omtteam.omlib.handler.OMLibEventHandler;
+import omtteam.omlib.power.OMEnergyStorage;
 import omtteam.omlib.util.player.Player;
 
 import javax.annotation.Nullable;
@@ -19,10 +23,16 @@ import static java.util.UUID.randomUUID;
  */
 public class OMLibNetwork {
     private Map<BlockPos, INetworkTile> devices = new HashMap<>();
+    private final PowerPartition delivering = new PowerPartition();
+    private final PowerPartition requiring = new PowerPartition();
+    private int ticksSinceDistribution;
+    private int distributionOffset;
     private World world;
     private UUID uuid;
     private String name;
     private Player owner;
+    @Nullable
+    private NetworkSavedData savedData;
 
     /**
      * This is the default constructor for a network without a custom name.
@@ -33,6 +43,7 @@ public class OMLibNetwork {
     public OMLibNetwork(World world) {
         this.world = world;
         this.uuid = randomUUID();
+        this.savedData = NetworkSavedData.get(world);
         OMLibEventHandler.getInstance().registerNetwork(this);
     }
 
@@ -46,39 +57,130 @@ public class OMLibNetwork {
         this.world = world;
         this.uuid = randomUUID();
         this.name = name;
+        this.savedData = NetworkSavedData.get(world);
+        OMLibEventHandler.getInstance().registerNetwork(this);
+    }
+
+    private OMLibNetwork(World world, UUID uuid, NetworkSavedData savedData, @Nullable NetworkSavedData.Record record) {
+        this.world = world;
+        this.uuid = uuid;
+        this.savedData = savedData;
+        if (record != null) {
+            this.name = record.name;
+            this.owner = record.owner;
+        }
         OMLibEventHandler.getInstance().registerNetwork(this);
     }
 
     /**
-     * This is the method that searches for energy giving and energy requiring devices and
-     * gathers and distributes the energy in the network
+     * Returns the network the device at pos belonged to when the world was saved, recreating it if necessary.
+     * The saved state only counts as matching if pos is still recorded and, unless it was the only device,
+     * one of its neighbours is recorded for the same network as well.
+     *
+     * @param world the world the device is in
+     * @param pos   the position of the device
+     * @return the saved network, null if there is none or it does not match anymore
+     */
+    @Nullable
+    public static OMLibNetwork restore(World world, BlockPos pos) {
+        NetworkSavedData data = NetworkSavedData.get(world);
+        UUID uuid = data != null ? data.getNetworkAt(pos) : null;
+        if (uuid == null) {
+            return null;
+        }
+        if (data.getMembers(uuid).size() > 1) {
+            boolean connected = false;
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                connected |= data.isMember(uuid, pos.offset(facing));
+            }
+            if (!connected) {
+                return null;
+            }
+        }
+        OMLibNetwork network = OMLibEventHandler.getInstance().getNetwork(uuid);
+        if (network != null && network.getWorld() == world) {
+            return network;
+        }
+        return new OMLibNetwork(world, uuid, data, data.getRecord(uuid));
+    }
+
+    /**
+     * This is the method that gathers the energy of the delivering devices and distributes it to the requiring devices.
+     * It only does work every OMConfig.GENERAL.networkEnergyInterval ticks, moving the energy of all ticks since the last run.
+     * Each requiring device gets a share proportional to what it can take, the delivering devices give proportionally
+     * to what they can give. The units left over by rounding are handed out starting at a rotating device, so all
+     * transferable energy arrives and no device is always last.
      * Do NOT call this manually anywhere.
      */
     public void tick() {
-        List<IPowerExchangeTile> delivering = new ArrayList<>();
-        List<IPowerExchangeTile> requiring = new ArrayList<>();
-        int powerRequired = 0, powerToDeliver = 0;
-
-        for (Map.Entry<BlockPos, INetworkTile> device : devices.entrySet()) {
-            if (world.isBlockLoaded(device.getKey()) && device.getValue() instanceof IPowerExchangeTile) {
-                if (((IPowerExchangeTile) device.getValue()).deliversEnergy()) {
-                    delivering.add((IPowerExchangeTile) device.getValue());
-                } else if (((IPowerExchangeTile) device.getValue()).requiresEnergy()) {
-                    requiring.add((IPowerExchangeTile) device.getValue());
-                }
-            }
+        if (++ticksSinceDistribution < OMConfig.GENERAL.networkEnergyInterval) {
+            return;
+        }
+        int ticks = ticksSinceDistribution;
+        ticksSinceDistribution = 0;
+        if (requiring.size() == 0 || delivering.size() == 0) {
+            return;
+        }
+        long demand = collect(requiring, ticks, true);
+        if (demand == 0) {
+            return;
         }
-        for (IPowerExchangeTile tile : requiring) {
-            powerRequired += Math.min(tile.getEnergyStorage().getMaxReceive(),
-                                      tile.getEnergyStorage().getMaxEnergyStored() - tile.getEnergyStorage().getEnergyStored());
+        long supply = collect(delivering, ticks, false);
+        long transfer = Math.min(demand, supply);
+        if (transfer == 0) {
+            return;
+        }
+        distributionOffset++;
+        distribute(requiring, demand, transfer, true);
+        distribute(delivering, supply, transfer, false);
+    }
+
+    /**
+     * Writes how much each device of the partition can take (or give) into its amounts.
+     *
+     * @return the sum of the amounts
+     */
+    private static long collect(PowerPartition partition, int ticks, boolean receiving) {
+        long total = 0;
+        for (int i = 0; i < partition.size(); i++) {
+            OMEnergyStorage storage = partition.getStorage(i);
+            int amount = 0;
+            if (storage != null) {
+                long rate = (long) (receiving ? storage.getMaxReceive() : storage.getMaxExtract()) * ticks;
+                int available = receiving ? storage.getMaxEnergyStored() - storage.getEnergyStored() : storage.getEnergyStored();
+                amount = (int) Math.max(0L, Math.min(rate, available));
+            }
+            partition.amounts[i] = amount;
+            total += amount;
         }
-        for (IPowerExchangeTile tile : delivering) {
-            powerToDeliver += Math.min(powerRequired - powerToDeliver, Math.min(tile.getEnergyStorage().getMaxExtract(),
-                                                                                tile.getEnergyStorage().getMaxEnergyStored() - tile.getEnergyStorage().getEnergyStored()));
+        return total;
+    }
+
+    /**
+     * Scales the amounts of the partition so they sum up to transfer and moves the energy.
+     */
+    private void distribute(PowerPartition partition, long total, long transfer, boolean receiving) {
+        int size = partition.size();
+        double ratio = transfer == total ? 1D : (double) transfer / total;
+        long remainder = transfer;
+        for (int i = 0; i < size; i++) {
+            remainder -= (long) (partition.amounts[i] * ratio);
         }
-        for (IPowerExchangeTile tile : requiring) {
-            tile.getEnergyStorage().receiveEnergy(powerToDeliver / requiring.size(), false);
-            powerToDeliver -= powerToDeliver / requiring.size();
+        for (int j = 0; j < size; j++) {
+            int i = (j + distributionOffset) % size;
+            int amount = partition.amounts[i];
+            int share = (int) (amount * ratio);
+            if (remainder > 0 && share < amount) {
+                int extra = (int) Math.min(remainder, amount - share);
+                share += extra;
+                remainder -= extra;
+            }
+            if (share > 0) {
+                OMEnergyStorage storage = partition.getStorage(i);
+                if (storage != null) {
+                    storage.setEnergyStored(storage.getEnergyStored() + (receiving ? share : -share));
+                }
+            }
         }
     }
 
@@ -104,7 +206,10 @@ public class OMLibNetwork {
     public boolean addDevice(INetworkTile tile) {
         boolean controllerExists = getController(tile.getClass()) != null;
         if (!controllerExists) {
-            this.devices.putIfAbsent(tile.getPosition(), tile);
+            // a device reloaded with its chunk is a new instance, replace the old one
+            this.devices.put(tile.getPosition(), tile);
+            addToPartition(tile);
+            save(tile);
             if (tile instanceof INameController) {
                 this.setName(((INameController) tile).getNetworkName());
             }
@@ -115,12 +220,64 @@ public class OMLibNetwork {
 
     /**
      * Use this to remove a device from the network.
+     * If the device connected parts of the network, those that got disconnected are moved to new networks.
      *
-     * @param tile The tile to be added
+     * @param tile The tile to be removed
      * @return true if possible, false if it failed.
      */
     public boolean removeDevice(INetworkTile tile) {
-        return this.devices.remove(tile.getPosition()) != null;
+        if (!detach(tile.getPosition())) {
+            return false;
+        }
+        splitAround(tile.getPosition());
+        return true;
+    }
+
+    private boolean detach(BlockPos pos) {
+        delivering.remove(pos);
+        requiring.remove(pos);
+        if (savedData != null) {
+            savedData.removeMember(pos);
+        }
+        return this.devices.remove(pos) != null;
+    }
+
+    private void save(INetworkTile tile) {
+        if (savedData != null) {
+            savedData.setMember(tile.getPosition(), this, tile instanceof IController);
+        }
+    }
+
+    /**
+     * @return true if a device at pos is part of this network, loaded or only recorded in the saved data
+     */
+    private boolean contains(BlockPos pos) {
+        return devices.containsKey(pos) || (savedData != null && savedData.isMember(uuid, pos));
+    }
+
+    private void addToPartition(INetworkTile tile) {
+        if (tile instanceof IPowerExchangeTile) {
+            IPowerExchangeTile powerTile = (IPowerExchangeTile) tile;
+            if (powerTile.deliversEnergy()) {
+                delivering.add(tile.getPosition(), powerTile);
+            } else if (powerTile.requiresEnergy()) {
+                requiring.add(tile.getPosition(), powerTile);
+            }
+        }
+    }
+
+    /**
+     * Called by the OMLibEventHandler when a chunk of this networks world was loaded or unloaded.
+     * Devices in unloaded chunks are skipped by tick().
+     *
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @param loaded true if the chunk was loaded, false if it was unloaded
+     */
+    public void onChunkChanged(int chunkX, int chunkZ, boolean loaded) {
+        long chunk = ChunkPos.asLong(chunkX, chunkZ);
+        delivering.onChunkChanged(world, chunk, loaded);
+        requiring.onChunkChanged(world, chunk, loaded);
     }
 
     /**
@@ -159,6 +316,9 @@ public class OMLibNetwork {
 
     public void setName(String name) {
         this.name = name;
+        if (savedData != null) {
+            savedData.updateNetwork(this);
+        }
     }
 
     public Player getOwner() {
@@ -167,40 +327,178 @@ public class OMLibNetwork {
 
     public void setOwner(Player owner) {
         this.owner = owner;
+        if (savedData != null) {
+            savedData.updateNetwork(this);
+        }
     }
 
     //Utility Functions
 
-    private boolean isSplitted() {
-        HashMap<BlockPos, INetworkTile> tempmap = new HashMap<>();
-        recursiveSearch((BlockPos) devices.keySet().toArray()[0], null, tempmap);
-        return tempmap.keySet().equals(devices.keySet());
+    /**
+     * Checks whether the devices next to a removed position are still connected.
+     * A search is started from every neighbouring device, all searches advance one device at a time.
+     * Searches that meet are united (union-find over the searches), a search that runs out of devices
+     * before meeting the others has found a disconnected part, which is moved to a new network.
+     * This stops as soon as only one search is left, so the work is bounded by the smaller parts
+     * and the large remaining part of the network is never walked completely.
+     */
+    private void splitAround(BlockPos pos) {
+        List<BlockPos> starts = new ArrayList<>(6);
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            if (contains(pos.offset(facing))) {
+                starts.add(pos.offset(facing));
+            }
+        }
+        int count = starts.size();
+        if (count < 2) {
+            return;
+        }
+        int[] parent = new int[count];
+        boolean[] closed = new boolean[count];
+        List<ArrayDeque<BlockPos>> queues = new ArrayList<>(count);
+        Object2IntOpenHashMap<BlockPos> owners = new Object2IntOpenHashMap<>();
+        owners.defaultReturnValue(-1);
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+            queues.add(new ArrayDeque<>());
+            queues.get(i).add(starts.get(i));
+            owners.put(starts.get(i), i);
+        }
+        int open = count;
+        while (open > 1) {
+            for (int i = 0; i < count && open > 1; i++) {
+                if (parent[i] != i || closed[i]) {
+                    continue;
+                }
+                BlockPos current = queues.get(i).poll();
+                if (current == null) {
+                    closed[i] = true;
+                    open--;
+                    moveToNewNetwork(owners, parent, i);
+                    continue;
+                }
+                for (EnumFacing facing : EnumFacing.VALUES) {
+                    BlockPos next = current.offset(facing);
+                    if (!contains(next)) {
+                        continue;
+                    }
+                    int owner = owners.getInt(next);
+                    if (owner < 0) {
+                        owners.put(next, i);
+                        queues.get(i).add(next);
+                    } else if (find(parent, owner) != i) {
+                        int other = find(parent, owner);
+                        parent[other] = i;
+                        queues.get(i).addAll(queues.get(other));
+                        queues.get(other).clear();
+                        open--;
+                    }
+                }
+            }
+        }
     }
 
-    private void recursiveSearch(BlockPos pos, @Nullable EnumFacing from, HashMap<BlockPos, INetworkTile> tempmap) {
-        for (EnumFacing facing : EnumFacing.VALUES) {
-            TileEntity te = world.getTileEntity(pos.offset(facing));
-            if (!facing.equals(from) && te instanceof INetworkTile & te != null) {
-                tempmap.put(pos.offset(facing), (INetworkTile) te);
-                recursiveSearch(pos.offset(facing), facing.getOpposite(), tempmap);
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private void moveToNewNetwork(Object2IntOpenHashMap<BlockPos> owners, int[] parent, int search) {
+        OMLibNetwork network = new OMLibNetwork(world);
+        network.setOwner(owner);
+        for (Object2IntMap.Entry<BlockPos> entry : owners.object2IntEntrySet()) {
+            if (find(parent, entry.getIntValue()) == search) {
+                network.take(this, entry.getKey());
             }
         }
     }
 
+    /**
+     * Moves the device at pos from the network from to this one, devices that are only recorded move in the saved data.
+     */
+    private void take(OMLibNetwork from, BlockPos pos) {
+        INetworkTile tile = from.devices.get(pos);
+        if (tile != null) {
+            from.detach(pos);
+            adopt(tile);
+        } else if (savedData != null) {
+            savedData.setMember(pos, this, false);
+        }
+    }
+
+    private void adopt(INetworkTile tile) {
+        devices.put(tile.getPosition(), tile);
+        addToPartition(tile);
+        save(tile);
+        if (tile instanceof INameController) {
+            this.setName(((INameController) tile).getNetworkName());
+        }
+        tile.setNetwork(this);
+    }
+
+    /**
+     * Checks the whole network for disconnected parts and moves all but the largest to new networks.
+     * The search is iterative, so long cable runs can not overflow the stack.
+     */
     public void splitNetwork() {
-        // set all networktile to refresh their network.
-        if (isSplitted()) {
-            for (INetworkTile tile : devices.values()) {
-                tile.setNetwork(null);
+        Set<BlockPos> unvisited = new HashSet<>(devices.keySet());
+        if (savedData != null) {
+            for (long key : savedData.getMembers(uuid).toLongArray()) {
+                unvisited.add(BlockPos.fromLong(key));
+            }
+        }
+        List<List<BlockPos>> parts = new ArrayList<>();
+        ArrayDeque<BlockPos> queue = new ArrayDeque<>();
+        int largest = 0;
+        while (!unvisited.isEmpty()) {
+            List<BlockPos> part = new ArrayList<>();
+            BlockPos start = unvisited.iterator().next();
+            unvisited.remove(start);
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                BlockPos current = queue.poll();
+                part.add(current);
+                for (EnumFacing facing : EnumFacing.VALUES) {
+                    if (unvisited.remove(current.offset(facing))) {
+                        queue.add(current.offset(facing));
+                    }
+                }
+            }
+            if (!parts.isEmpty() && part.size() > parts.get(largest).size()) {
+                largest = parts.size();
+            }
+            parts.add(part);
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            if (i == largest) {
+                continue;
+            }
+            OMLibNetwork network = new OMLibNetwork(world);
+            network.setOwner(owner);
+            for (BlockPos pos : parts.get(i)) {
+                network.take(this, pos);
             }
         }
     }
 
+    /**
+     * Moves all devices of the given network to this one and destroys the other network.
+     * Callers should merge the smaller network into the larger one, as the cost is the size of the merged network.
+     */
     public void mergeNetwork(OMLibNetwork network) {
         // add all the devices from other network to this.
         for (INetworkTile tile : network.getAllDevices()) {
-            devices.putIfAbsent(tile.getPosition(), tile);
-            tile.setNetwork(this);
+            if (!devices.containsKey(tile.getPosition())) {
+                adopt(tile);
+            } else {
+                tile.setNetwork(this);
+            }
+        }
+        if (savedData != null) {
+            savedData.moveMembers(network.getUuid(), this);
         }
         network.destroy();
     }
@@ -0,0 +1,129 @@
+package omtteam.omlib.api.network;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import omtteam.omlib.power.OMEnergyStorage;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * This Class holds either the energy delivering or the energy requiring devices of an OMLibNetwork.
+ * Devices are kept in plain arrays together with their chunk and whether that chunk is loaded,
+ * so the network tick never has to look anything up in the world.
+ * The indices of the devices in each chunk are kept as well, so chunk loads only touch the devices inside them.
+ * The amounts array is scratch space for the energy each device gives or takes in the current distribution.
+ */
+class PowerPartition {
+    private final Object2IntOpenHashMap<BlockPos> indices = new Object2IntOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<IntArrayList> chunkIndices = new Long2ObjectOpenHashMap<>();
+    private IPowerExchangeTile[] tiles = new IPowerExchangeTile[8];
+    private BlockPos[] positions = new BlockPos[8];
+    private long[] chunks = new long[8];
+    private boolean[] loaded = new boolean[8];
+    int[] amounts = new int[8];
+    private int size;
+
+    PowerPartition() {
+        indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * Adds a device, or replaces the instance kept for its position (f.ex. after its chunk was loaded again).
+     */
+    void add(BlockPos pos, IPowerExchangeTile tile) {
+        int index = indices.getInt(pos);
+        if (index < 0) {
+            if (size == tiles.length) {
+                int length = size * 2;
+                tiles = Arrays.copyOf(tiles, length);
+                positions = Arrays.copyOf(positions, length);
+                chunks = Arrays.copyOf(chunks, length);
+                loaded = Arrays.copyOf(loaded, length);
+                amounts = Arrays.copyOf(amounts, length);
+            }
+            index = size++;
+            indices.put(pos, index);
+            positions[index] = pos;
+            chunks[index] = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+            IntArrayList chunkDevices = chunkIndices.get(chunks[index]);
+            if (chunkDevices == null) {
+                chunkDevices = new IntArrayList(2);
+                chunkIndices.put(chunks[index], chunkDevices);
+            }
+            chunkDevices.add(index);
+        }
+        tiles[index] = tile;
+        loaded[index] = true;
+    }
+
+    boolean remove(BlockPos pos) {
+        int index = indices.removeInt(pos);
+        if (index < 0) {
+            return false;
+        }
+        IntArrayList chunkDevices = chunkIndices.get(chunks[index]);
+        chunkDevices.rem(index);
+        if (chunkDevices.isEmpty()) {
+            chunkIndices.remove(chunks[index]);
+        }
+        // swap remove, the order of devices does not matter. The moved device keeps its chunk under its new index
+        int last = --size;
+        if (index != last) {
+            tiles[index] = tiles[last];
+            positions[index] = positions[last];
+            chunks[index] = chunks[last];
+            loaded[index] = loaded[last];
+            indices.put(positions[index], index);
+            IntArrayList movedChunkDevices = chunkIndices.get(chunks[index]);
+            movedChunkDevices.set(movedChunkDevices.indexOf(last), index);
+        }
+        tiles[last] = null;
+        positions[last] = null;
+        return true;
+    }
+
+    /**
+     * Updates the devices inside a chunk that was loaded or unloaded.
+     * Loaded devices are looked up again, as the chunk brings new tile entity instances.
+     */
+    void onChunkChanged(World world, long chunk, boolean chunkLoaded) {
+        IntArrayList chunkDevices = chunkIndices.get(chunk);
+        if (chunkDevices == null) {
+            return;
+        }
+        for (int j = 0; j < chunkDevices.size(); j++) {
+            int i = chunkDevices.getInt(j);
+            if (chunkLoaded) {
+                TileEntity tileEntity = world.getTileEntity(positions[i]);
+                if (tileEntity instanceof IPowerExchangeTile) {
+                    tiles[i] = (IPowerExchangeTile) tileEntity;
+                    loaded[i] = true;
+                }
+            } else {
+                loaded[i] = false;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the energy storage of the device at index, null if it is not loaded or was removed from the world
+     */
+    @Nullable
+    OMEnergyStorage getStorage(int index) {
+        IPowerExchangeTile tile = tiles[index];
+        if (!loaded[index] || (tile instanceof TileEntity && ((TileEntity) tile).isInvalid())) {
+            return null;
+        }
+        return tile.getEnergyStorage();
+    }
+}
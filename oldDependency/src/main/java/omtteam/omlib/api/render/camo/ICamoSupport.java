@@ -2,7 +2,7 @@ package omtteam.omlib.api.render.camo;
 
 import net.minecraft.block.state.IBlockState;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
-import omtteam.omlib.network.OMLibNetworkingHandler;
+import omtteam.omlib.network.PacketBatcher;
 import omtteam.omlib.network.messages.MessageCamoSettings;
 import omtteam.omlib.tileentity.TileEntityOwnedBlock;
 import omtteam.omlib.util.camo.CamoSettings;
@@ -45,11 +45,11 @@ public interface ICamoSupport {
     TileEntityOwnedBlock getOwnedBlock();
 
     default void updateCamoSettingsToPlayers() {
-        OMLibNetworkingHandler.INSTANCE.sendToAllTracking(new MessageCamoSettings((ICamoSupport) this.getOwnedBlock()),
-                                                          new NetworkRegistry.TargetPoint(
-                                                                  this.getOwnedBlock().getWorld().provider.getDimension(),
-                                                                  this.getOwnedBlock().getPos().getX(),
-                                                                  this.getOwnedBlock().getPos().getY(),
-                                                                  this.getOwnedBlock().getPos().getZ(), 20));
+        PacketBatcher.queueToAllTracking(new MessageCamoSettings((ICamoSupport) this.getOwnedBlock()),
+                                         new NetworkRegistry.TargetPoint(
+                                                 this.getOwnedBlock().getWorld().provider.getDimension(),
+                                                 this.getOwnedBlock().getPos().getX(),
+                                                 this.getOwnedBlock().getPos().getY(),
+                                                 this.getOwnedBlock().getPos().getZ(), 20));
     }
 }
@@ -13,6 +13,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import omtteam.omlib.api.network.INetworkCable;
+import omtteam.omlib.api.network.INetworkTile;
 import omtteam.omlib.reference.OMLibNames;
 import omtteam.omlib.reference.Reference;
 import omtteam.omlib.tileentity.TileEntityCable;
@@ -85,4 +86,14 @@ public class BlockCable extends BlockAbstractTileEntity {
             ((INetworkCable) entity).scan(worldIn, pos, "");
         }
     }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {
+        TileEntity entity = worldIn.getTileEntity(pos);
+        if (entity instanceof INetworkTile && ((INetworkTile) entity).getNetwork() != null) {
+            ((INetworkTile) entity).getNetwork().removeDevice((INetworkTile) entity);
+        }
+        super.breakBlock(worldIn, pos, state);
+    }
 }
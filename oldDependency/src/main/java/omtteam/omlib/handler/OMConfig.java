@@ -24,5 +24,13 @@ public class OMConfig {
         public boolean EUSupport = true;
         @Config.Comment("How much RF is one EU?")
         public double EUtoRFRatio = 4D;
+        @Config.RangeInt(min = 1, max = 200)
+        @Config.Comment("Every how many ticks should networks distribute energy? Higher values move the same energy in fewer, bigger batches.")
+        public int networkEnergyInterval = 1;
+        @Config.Comment("Should messages to a player be collected during a tick and sent as one packet?")
+        public boolean batchPackets = true;
+        @Config.RangeInt(min = 0, max = 1048576)
+        @Config.Comment("From how many bytes on should batched messages be compressed?")
+        public int packetCompressionThreshold = 256;
     }
 }
@@ -20,6 +20,8 @@ import net.minecraftforge.common.config.Config;
 import net.minecraftforge.common.config.ConfigManager;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
@@ -35,12 +37,16 @@ import omtteam.omlib.init.OMLibItems;
 import omtteam.omlib.items.IDrawOutline;
 import omtteam.omlib.items.IDrawOutlineBase;
 import omtteam.omlib.network.OMLibNetworkingHandler;
+import omtteam.omlib.network.PacketBatcher;
 import omtteam.omlib.network.messages.MessageSetSharePlayerList;
 import omtteam.omlib.reference.Reference;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static omtteam.omlib.util.RenderUtil.drawHighlightBox;
@@ -48,10 +54,12 @@ import static omtteam.omlib.util.RenderUtil.drawHighlightBox;
 /**
  * Created by Keridos on 17/05/17.
  * This Class is the EventHandler for OMLib.
+ * It also keeps the registry of all OMLibNetworks, per dimension and by uuid.
  */
 public class OMLibEventHandler {
     private static OMLibEventHandler instance;
-    private final List<OMLibNetwork> networks = new ArrayList<>();
+    private final Map<Integer, Map<UUID, OMLibNetwork>> networksByDimension = new HashMap<>();
+    private final Map<UUID, OMLibNetwork> networks = new HashMap<>();
 
     private OMLibEventHandler() {
     }
@@ -145,13 +153,63 @@ public class OMLibEventHandler {
 
     @SubscribeEvent
     public void tickEvent(TickEvent.WorldTickEvent event) {
-        for (OMLibNetwork network : networks) {
-            if (network.getWorld().provider.getDimension() == event.world.provider.getDimension()) {
+        if (event.phase != TickEvent.Phase.END || event.world.isRemote) {
+            return;
+        }
+        for (OMLibNetwork network : getNetworks(event.world.provider.getDimension())) {
+            // client side networks share the dimension id
+            if (network.getWorld() == event.world) {
                 network.tick();
             }
         }
     }
 
+    @SubscribeEvent
+    public void serverTickEvent(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            PacketBatcher.flush();
+        }
+    }
+
+    @SubscribeEvent
+    public void worldUnloadEvent(WorldEvent.Unload event) {
+        Map<UUID, OMLibNetwork> dimensionNetworks = networksByDimension.get(event.getWorld().provider.getDimension());
+        if (dimensionNetworks == null) {
+            return;
+        }
+        dimensionNetworks.values().removeIf(network -> {
+            if (network.getWorld() == event.getWorld()) {
+                networks.remove(network.getUuid());
+                return true;
+            }
+            return false;
+        });
+        if (dimensionNetworks.isEmpty()) {
+            networksByDimension.remove(event.getWorld().provider.getDimension());
+        }
+    }
+
+    @SubscribeEvent
+    public void chunkLoadEvent(ChunkEvent.Load event) {
+        onChunkChanged(event, true);
+    }
+
+    @SubscribeEvent
+    public void chunkUnloadEvent(ChunkEvent.Unload event) {
+        onChunkChanged(event, false);
+    }
+
+    private void onChunkChanged(ChunkEvent event, boolean loaded) {
+        if (event.getWorld().isRemote) {
+            return;
+        }
+        for (OMLibNetwork network : getNetworks(event.getWorld().provider.getDimension())) {
+            if (network.getWorld() == event.getWorld()) {
+                network.onChunkChanged(event.getChunk().x, event.getChunk().z, loaded);
+            }
+        }
+    }
+
     @SideOnly(Side.CLIENT)
     @SubscribeEvent
     public void renderWorldLastEvent(RenderWorldLastEvent event) {
@@ -168,28 +226,35 @@ public class OMLibEventHandler {
         }
     }
 
-    private List<OMLibNetwork> getNetworkList() {
-        return networks;
+    private Collection<OMLibNetwork> getNetworks(int dimension) {
+        Map<UUID, OMLibNetwork> dimensionNetworks = networksByDimension.get(dimension);
+        return dimensionNetworks != null ? dimensionNetworks.values() : Collections.emptyList();
     }
 
+    /**
+     * Registers a network with the dimension of its world, registering the same network again does nothing.
+     */
     public void registerNetwork(OMLibNetwork network) {
-        networks.add(network);
+        if (networks.putIfAbsent(network.getUuid(), network) == null) {
+            networksByDimension.computeIfAbsent(network.getWorld().provider.getDimension(), dimension -> new LinkedHashMap<>())
+                    .put(network.getUuid(), network);
+        }
     }
 
     public void removeNetwork(OMLibNetwork network) {
-        networks.remove(network);
+        if (networks.remove(network.getUuid()) != null) {
+            Map<UUID, OMLibNetwork> dimensionNetworks = networksByDimension.get(network.getWorld().provider.getDimension());
+            if (dimensionNetworks != null) {
+                dimensionNetworks.remove(network.getUuid());
+                if (dimensionNetworks.isEmpty()) {
+                    networksByDimension.remove(network.getWorld().provider.getDimension());
+                }
+            }
+        }
     }
 
     @Nullable
     public OMLibNetwork getNetwork(UUID uuid) {
-        OMLibNetwork network = null;
-        for (OMLibNetwork net : networks) {
-            if (net.getUuid().equals(uuid)) {
-                network = net;
-                break;
-            }
-        }
-        return network;
+        return networks.get(uuid);
     }
 }
-
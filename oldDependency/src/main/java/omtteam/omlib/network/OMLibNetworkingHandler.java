@@ -40,6 +40,11 @@ public class OMLibNetworkingHandler {
                                  MessageRemoveTrustedPlayer.class, 8, Side.SERVER);
         INSTANCE.registerMessage(MessageSpawnParticleQuad.MessageHandlerSpawnParticleQuad.class,
                                  MessageSpawnParticleQuad.class, 9, Side.CLIENT);
+        INSTANCE.registerMessage(MessageBatch.MessageHandlerBatch.class, MessageBatch.class, 10, Side.CLIENT);
+
+        PacketBatcher.register(INSTANCE, Reference.MOD_ID, 3, MessageCamoSettings.class, MessageCamoSettings.MessageHandlerCamoSettings.class);
+        PacketBatcher.register(INSTANCE, Reference.MOD_ID, 4, MessageRenderRay.class, MessageRenderRay.MessageHandlerRenderRay.class);
+        PacketBatcher.register(INSTANCE, Reference.MOD_ID, 9, MessageSpawnParticleQuad.class, MessageSpawnParticleQuad.MessageHandlerSpawnParticleQuad.class);
     }
 
     public static void sendMessageToAllPlayers(IMessage message) {
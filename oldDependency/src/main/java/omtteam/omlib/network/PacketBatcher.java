@@ -0,0 +1,278 @@
+package omtteam.omlib.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.common.network.NetworkRegistry;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import omtteam.omlib.handler.OMConfig;
+import omtteam.omlib.network.messages.MessageBatch;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This Class collects the client bound messages of OMLib and the mods using it per player during a tick.
+ * At the end of the server tick every player gets all its messages as one MessageBatch, compressed if it is big enough.
+ * Messages are registered with the name of their channel and the discriminator they have on it
+ * (see the initNetworking() of the networking handlers), which identify them in a batch just like on their own channel.
+ * With OMConfig.GENERAL.batchPackets disabled messages are sent right away through their own channel.
+ */
+public class PacketBatcher {
+    // flush a player early before its batch gets close to the size limit of a custom payload packet
+    private static final int MAX_BATCH_SIZE = 512 * 1024;
+
+    private static final Map<String, Registration[]> registrations = new HashMap<>();
+    private static final Map<Class<? extends IMessage>, Registration> registrationsByType = new HashMap<>();
+    private static final Map<EntityPlayerMP, Batch> pending = new LinkedHashMap<>();
+
+    /**
+     * Registers a client bound message for batching, the message also has to be registered with its channel.
+     *
+     * @param channel       the channel the message is sent through when batching is disabled
+     * @param channelName   the name the channel was created with
+     * @param discriminator the discriminator the message was registered with on the channel
+     * @param type          the message class, needs a public no-argument constructor
+     * @param handler       the client side handler of the message
+     */
+    public static <M extends IMessage> void register(SimpleNetworkWrapper channel, String channelName, int discriminator,
+                                                     Class<M> type, Class<? extends IMessageHandler<M, ? extends IMessage>> handler) {
+        if (discriminator < 0 || discriminator > 255) {
+            throw new IllegalArgumentException("Invalid discriminator " + discriminator + " for " + type.getName());
+        }
+        Registration[] channelRegistrations = registrations.computeIfAbsent(channelName, name -> new Registration[256]);
+        if (channelRegistrations[discriminator] != null) {
+            throw new IllegalArgumentException("Discriminator " + discriminator + " of channel " + channelName + " is already registered");
+        }
+        Registration registration = new Registration(channel, channelName, discriminator, type, handler);
+        channelRegistrations[discriminator] = registration;
+        registrationsByType.put(type, registration);
+    }
+
+    @Nullable
+    public static Registration getRegistration(String channelName, int discriminator) {
+        Registration[] channelRegistrations = registrations.get(channelName);
+        return channelRegistrations != null && discriminator >= 0 && discriminator < 256 ? channelRegistrations[discriminator] : null;
+    }
+
+    private static Registration getRegistration(IMessage message) {
+        Registration registration = registrationsByType.get(message.getClass());
+        if (registration == null) {
+            throw new IllegalArgumentException("Message " + message.getClass().getName() + " is not registered for batching");
+        }
+        return registration;
+    }
+
+    public static void queue(IMessage message, EntityPlayerMP player) {
+        Registration registration = getRegistration(message);
+        if (!OMConfig.GENERAL.batchPackets) {
+            registration.channel.sendTo(message, player);
+            return;
+        }
+        append(player, registration, serialize(message));
+    }
+
+    /**
+     * Queues a message for all players in range of the point, like SimpleNetworkWrapper.sendToAllAround().
+     */
+    public static void queueToAllAround(IMessage message, NetworkRegistry.TargetPoint point) {
+        Registration registration = getRegistration(message);
+        if (!OMConfig.GENERAL.batchPackets) {
+            registration.channel.sendToAllAround(message, point);
+            return;
+        }
+        WorldServer world = DimensionManager.getWorld(point.dimension);
+        if (world == null) {
+            return;
+        }
+        ByteBuf payload = null;
+        for (EntityPlayer player : world.playerEntities) {
+            if (player instanceof EntityPlayerMP && player.getDistanceSq(point.x, point.y, point.z) < point.range * point.range) {
+                if (payload == null) {
+                    payload = serialize(message);
+                }
+                append((EntityPlayerMP) player, registration, payload);
+            }
+        }
+    }
+
+    /**
+     * Queues a message for all players watching the chunk of the point, like SimpleNetworkWrapper.sendToAllTracking().
+     */
+    public static void queueToAllTracking(IMessage message, NetworkRegistry.TargetPoint point) {
+        Registration registration = getRegistration(message);
+        if (!OMConfig.GENERAL.batchPackets) {
+            registration.channel.sendToAllTracking(message, point);
+            return;
+        }
+        WorldServer world = DimensionManager.getWorld(point.dimension);
+        if (world == null) {
+            return;
+        }
+        PlayerChunkMap chunkMap = world.getPlayerChunkMap();
+        int chunkX = (int) Math.floor(point.x) >> 4;
+        int chunkZ = (int) Math.floor(point.z) >> 4;
+        ByteBuf payload = null;
+        for (EntityPlayer player : world.playerEntities) {
+            if (player instanceof EntityPlayerMP && chunkMap.isPlayerWatchingChunk((EntityPlayerMP) player, chunkX, chunkZ)) {
+                if (payload == null) {
+                    payload = serialize(message);
+                }
+                append((EntityPlayerMP) player, registration, payload);
+            }
+        }
+    }
+
+    /**
+     * Queues a message for all players tracking the entity, like SimpleNetworkWrapper.sendToAllTracking().
+     */
+    public static void queueToAllTracking(IMessage message, Entity entity) {
+        Registration registration = getRegistration(message);
+        if (!OMConfig.GENERAL.batchPackets) {
+            registration.channel.sendToAllTracking(message, entity);
+            return;
+        }
+        if (!(entity.getEntityWorld() instanceof WorldServer)) {
+            return;
+        }
+        ByteBuf payload = null;
+        for (EntityPlayer player : ((WorldServer) entity.getEntityWorld()).getEntityTracker().getTrackingPlayers(entity)) {
+            if (player instanceof EntityPlayerMP) {
+                if (payload == null) {
+                    payload = serialize(message);
+                }
+                append((EntityPlayerMP) player, registration, payload);
+            }
+        }
+    }
+
+    /**
+     * Sends every player its queued messages, called at the end of each server tick.
+     */
+    public static void flush() {
+        for (Map.Entry<EntityPlayerMP, Batch> entry : pending.entrySet()) {
+            send(entry.getKey(), entry.getValue());
+        }
+        pending.clear();
+    }
+
+    private static void send(EntityPlayerMP player, Batch batch) {
+        if (!player.hasDisconnected()) {
+            OMLibNetworkingHandler.INSTANCE.sendTo(batch.toMessage(), player);
+        }
+    }
+
+    private static void append(EntityPlayerMP player, Registration registration, ByteBuf payload) {
+        Batch batch = pending.get(player);
+        if (batch == null) {
+            batch = new Batch();
+            pending.put(player, batch);
+        }
+        batch.add(registration, payload);
+        if (batch.entries.writerIndex() > MAX_BATCH_SIZE) {
+            send(player, batch);
+            pending.remove(player);
+        }
+    }
+
+    private static ByteBuf serialize(IMessage message) {
+        ByteBuf payload = Unpooled.buffer();
+        message.toBytes(payload);
+        return payload;
+    }
+
+    /**
+     * This Class is the content of one MessageBatch while it is collected.
+     * It starts with the names of the channels used in the batch, each sub message then is the index of its channel
+     * in that table as varint, its discriminator as byte and its length as varint, followed by the payload.
+     */
+    public static class Batch {
+        private final List<String> channels = new ArrayList<>();
+        private final PacketBuffer entries = new PacketBuffer(Unpooled.buffer());
+
+        /**
+         * Adds a message registered for batching.
+         */
+        public void add(IMessage message) {
+            add(getRegistration(message), serialize(message));
+        }
+
+        private void add(Registration registration, ByteBuf payload) {
+            int channel = channels.indexOf(registration.channelName);
+            if (channel < 0) {
+                channel = channels.size();
+                channels.add(registration.channelName);
+            }
+            entries.writeVarInt(channel);
+            entries.writeByte(registration.discriminator);
+            entries.writeVarInt(payload.readableBytes());
+            entries.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
+        }
+
+        public MessageBatch toMessage() {
+            PacketBuffer content = new PacketBuffer(Unpooled.buffer(entries.readableBytes() + 16 * channels.size()));
+            content.writeVarInt(channels.size());
+            for (String channel : channels) {
+                content.writeString(channel);
+            }
+            content.writeBytes(entries, entries.readerIndex(), entries.readableBytes());
+            return new MessageBatch(content);
+        }
+    }
+
+    /**
+     * This Class is one message type registered for batching.
+     */
+    public static class Registration {
+        private final SimpleNetworkWrapper channel;
+        private final String channelName;
+        private final int discriminator;
+        private final Class<? extends IMessage> type;
+        private final Class<? extends IMessageHandler<?, ? extends IMessage>> handlerType;
+        private IMessageHandler<IMessage, ? extends IMessage> handler;
+
+        private Registration(SimpleNetworkWrapper channel, String channelName, int discriminator, Class<? extends IMessage> type,
+                             Class<? extends IMessageHandler<?, ? extends IMessage>> handlerType) {
+            this.channel = channel;
+            this.channelName = channelName;
+            this.discriminator = discriminator;
+            this.type = type;
+            this.handlerType = handlerType;
+        }
+
+        public IMessage createMessage() {
+            try {
+                return type.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException("Could not create message " + type.getName(), e);
+            }
+        }
+
+        /**
+         * @return the handler of the message, created on first use as the handlers only work on the client
+         */
+        @SuppressWarnings("unchecked")
+        public IMessageHandler<IMessage, ? extends IMessage> getHandler() {
+            if (handler == null) {
+                try {
+                    handler = (IMessageHandler<IMessage, ? extends IMessage>) handlerType.newInstance();
+                } catch (InstantiationException | IllegalAccessException e) {
+                    throw new IllegalStateException("Could not create message handler " + handlerType.getName(), e);
+                }
+            }
+            return handler;
+        }
+    }
+}
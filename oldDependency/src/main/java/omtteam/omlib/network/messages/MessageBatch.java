@@ -0,0 +1,142 @@
+package omtteam.omlib.network.messages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import omtteam.omlib.handler.OMConfig;
+import omtteam.omlib.network.PacketBatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This Class is the Message that carries all messages the PacketBatcher collected for a player during a tick.
+ * The content is a table of the channel names used followed by the sub messages, each one the index of its channel
+ * and its discriminator on that channel, then its length and bytes (see PacketBatcher.Batch).
+ * Contents of at least OMConfig.GENERAL.packetCompressionThreshold bytes are deflated.
+ * The client decodes the sub messages on the netty thread and runs all their handlers in one scheduled task.
+ */
+public class MessageBatch implements IMessage {
+    // refuse batches that would inflate beyond this, the server never sends more than a few hundred kB
+    private static final int MAX_SIZE = 16 * 1024 * 1024;
+
+    private ByteBuf content;
+    private final List<IMessage> messages = new ArrayList<>();
+    private final List<PacketBatcher.Registration> registrations = new ArrayList<>();
+
+    public MessageBatch() {
+    }
+
+    public MessageBatch(ByteBuf content) {
+        this.content = content;
+    }
+
+    @Override
+    public void fromBytes(ByteBuf buf) {
+        PacketBuffer buffer = new PacketBuffer(buf);
+        boolean compressed = buffer.readBoolean();
+        int size = buffer.readVarInt();
+        if (size < 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid batch size " + size);
+        }
+        byte[] bytes = new byte[size];
+        if (compressed) {
+            byte[] input = new byte[buffer.readableBytes()];
+            buffer.readBytes(input);
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(input);
+                if (inflater.inflate(bytes) != size || !inflater.finished()) {
+                    throw new IllegalArgumentException("Batch does not match its size " + size);
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Could not inflate batch", e);
+            } finally {
+                inflater.end();
+            }
+        } else {
+            buffer.readBytes(bytes);
+        }
+
+        PacketBuffer subMessages = new PacketBuffer(Unpooled.wrappedBuffer(bytes));
+        int channelCount = subMessages.readVarInt();
+        if (channelCount < 0 || channelCount > size) {
+            throw new IllegalArgumentException("Invalid channel count " + channelCount);
+        }
+        String[] channels = new String[channelCount];
+        for (int i = 0; i < channelCount; i++) {
+            channels[i] = subMessages.readString(Short.MAX_VALUE);
+        }
+        while (subMessages.isReadable()) {
+            int channel = subMessages.readVarInt();
+            int discriminator = subMessages.readUnsignedByte();
+            int length = subMessages.readVarInt();
+            if (channel < 0 || channel >= channelCount) {
+                throw new IllegalArgumentException("Invalid channel index " + channel);
+            }
+            PacketBatcher.Registration registration = PacketBatcher.getRegistration(channels[channel], discriminator);
+            if (registration == null) {
+                throw new IllegalArgumentException("Unknown batched message " + discriminator + " of channel " + channels[channel]);
+            }
+            IMessage message = registration.createMessage();
+            message.fromBytes(subMessages.readSlice(length));
+            messages.add(message);
+            registrations.add(registration);
+        }
+    }
+
+    /**
+     * Runs the handlers of all decoded sub messages, in the order they were queued.
+     */
+    public void dispatch(MessageContext ctx) {
+        for (int i = 0; i < messages.size(); i++) {
+            registrations.get(i).getHandler().onMessage(messages.get(i), ctx);
+        }
+    }
+
+    @Override
+    public void toBytes(ByteBuf buf) {
+        PacketBuffer buffer = new PacketBuffer(buf);
+        int size = content.readableBytes();
+        byte[] bytes = new byte[size];
+        content.getBytes(content.readerIndex(), bytes);
+        boolean compress = size >= OMConfig.GENERAL.packetCompressionThreshold;
+        buffer.writeBoolean(compress);
+        buffer.writeVarInt(size);
+        if (compress) {
+            Deflater deflater = new Deflater();
+            try {
+                deflater.setInput(bytes);
+                deflater.finish();
+                byte[] output = new byte[8192];
+                while (!deflater.finished()) {
+                    buffer.writeBytes(output, 0, deflater.deflate(output));
+                }
+            } finally {
+                deflater.end();
+            }
+        } else {
+            buffer.writeBytes(bytes);
+        }
+    }
+
+    public static class MessageHandlerBatch implements IMessageHandler<MessageBatch, IMessage> {
+        @Override
+        @SideOnly(Side.CLIENT)
+        public IMessage onMessage(MessageBatch messageIn, MessageContext ctx) {
+            final MessageBatch message = messageIn;
+            // handlers scheduling a task from the client thread run it right away, so all of them run in this one task
+            Minecraft.getMinecraft().addScheduledTask(() -> message.dispatch(ctx));
+            return null;
+        }
+    }
+}
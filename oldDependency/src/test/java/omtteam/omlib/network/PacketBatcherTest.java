@@ -0,0 +1,226 @@
+package omtteam.omlib.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import omtteam.omlib.handler.OMConfig;
+import omtteam.omlib.network.messages.MessageBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacketBatcherTest {
+    private static final List<IMessage> received = new ArrayList<>();
+    private final int threshold = OMConfig.GENERAL.packetCompressionThreshold;
+
+    @BeforeAll
+    static void register() {
+        PacketBatcher.register(null, "omlibtest", 0, TestMessage.class, TestMessage.TestHandler.class);
+        PacketBatcher.register(null, "omlibtest2", 0, OtherMessage.class, OtherMessage.OtherHandler.class);
+    }
+
+    @BeforeEach
+    void clearReceived() {
+        received.clear();
+    }
+
+    @AfterEach
+    void resetThreshold() {
+        OMConfig.GENERAL.packetCompressionThreshold = threshold;
+    }
+
+    @Test
+    void uncompressedBatch() {
+        OMConfig.GENERAL.packetCompressionThreshold = Integer.MAX_VALUE;
+        List<TestMessage> sent = new ArrayList<>();
+        sent.add(new TestMessage(1, "first"));
+        sent.add(new TestMessage(-300, ""));
+        sent.add(new TestMessage(Integer.MAX_VALUE, "third"));
+
+        ByteBuf buf = encode(sent);
+        assertFalse(buf.getBoolean(buf.readerIndex()));
+        assertDecoded(sent, buf);
+    }
+
+    @Test
+    void compressedBatch() {
+        OMConfig.GENERAL.packetCompressionThreshold = 0;
+        List<TestMessage> sent = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("turret ");
+        }
+        for (int i = 0; i < 20; i++) {
+            sent.add(new TestMessage(i, text.toString()));
+        }
+
+        ByteBuf buf = encode(sent);
+        assertTrue(buf.getBoolean(buf.readerIndex()));
+        assertTrue(buf.readableBytes() < 20 * text.length());
+        assertDecoded(sent, buf);
+    }
+
+    @Test
+    void emptyBatch() {
+        assertDecoded(new ArrayList<>(), encode(new ArrayList<>()));
+    }
+
+    @Test
+    void twoChannels() {
+        PacketBatcher.Batch batch = new PacketBatcher.Batch();
+        batch.add(new TestMessage(1, "first"));
+        batch.add(new OtherMessage());
+        batch.add(new TestMessage(2, "second"));
+        ByteBuf buf = Unpooled.buffer();
+        batch.toMessage().toBytes(buf);
+
+        MessageBatch message = new MessageBatch();
+        message.fromBytes(buf);
+        message.dispatch(null);
+        assertEquals(3, received.size());
+        assertEquals(1, ((TestMessage) received.get(0)).number);
+        assertTrue(received.get(1) instanceof OtherMessage);
+        assertEquals(2, ((TestMessage) received.get(2)).number);
+    }
+
+    @Test
+    void unregisteredMessage() {
+        assertThrows(IllegalArgumentException.class, () -> new PacketBatcher.Batch().add(new UnregisteredMessage()));
+    }
+
+    @Test
+    void unknownDiscriminator() {
+        PacketBuffer content = new PacketBuffer(Unpooled.buffer());
+        content.writeVarInt(1);
+        content.writeString("omlibtest");
+        content.writeVarInt(0);
+        content.writeByte(255);
+        content.writeVarInt(0);
+        ByteBuf buf = Unpooled.buffer();
+        new MessageBatch(content).toBytes(buf);
+        assertThrows(IllegalArgumentException.class, () -> new MessageBatch().fromBytes(buf));
+    }
+
+    @Test
+    void unknownChannel() {
+        PacketBuffer content = new PacketBuffer(Unpooled.buffer());
+        content.writeVarInt(1);
+        content.writeString("unknown");
+        content.writeVarInt(0);
+        content.writeByte(0);
+        content.writeVarInt(0);
+        ByteBuf buf = Unpooled.buffer();
+        new MessageBatch(content).toBytes(buf);
+        assertThrows(IllegalArgumentException.class, () -> new MessageBatch().fromBytes(buf));
+    }
+
+    @Test
+    void duplicateDiscriminator() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> PacketBatcher.register(null, "omlibtest", 0, UnregisteredMessage.class, UnregisteredMessage.UnregisteredHandler.class));
+    }
+
+    @Test
+    void invalidSize() {
+        PacketBuffer buf = new PacketBuffer(Unpooled.buffer());
+        buf.writeBoolean(true);
+        buf.writeVarInt(Integer.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> new MessageBatch().fromBytes(buf));
+    }
+
+    private static ByteBuf encode(List<TestMessage> messages) {
+        PacketBatcher.Batch batch = new PacketBatcher.Batch();
+        for (TestMessage message : messages) {
+            batch.add(message);
+        }
+        ByteBuf buf = Unpooled.buffer();
+        batch.toMessage().toBytes(buf);
+        return buf;
+    }
+
+    private static void assertDecoded(List<TestMessage> sent, ByteBuf buf) {
+        MessageBatch batch = new MessageBatch();
+        batch.fromBytes(buf);
+        assertFalse(buf.isReadable());
+        batch.dispatch(null);
+        assertEquals(sent.size(), received.size());
+        for (int i = 0; i < sent.size(); i++) {
+            TestMessage message = (TestMessage) received.get(i);
+            assertEquals(sent.get(i).number, message.number);
+            assertEquals(sent.get(i).text, message.text);
+        }
+    }
+
+    public static class TestMessage implements IMessage {
+        private int number;
+        private String text;
+
+        public TestMessage() {
+        }
+
+        TestMessage(int number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+
+        @Override
+        public void fromBytes(ByteBuf buf) {
+            this.number = buf.readInt();
+            this.text = ByteBufUtils.readUTF8String(buf);
+        }
+
+        @Override
+        public void toBytes(ByteBuf buf) {
+            buf.writeInt(number);
+            ByteBufUtils.writeUTF8String(buf, text);
+        }
+
+        public static class TestHandler implements IMessageHandler<TestMessage, IMessage> {
+            @Override
+            public IMessage onMessage(TestMessage message, MessageContext ctx) {
+                received.add(message);
+                return null;
+            }
+        }
+    }
+
+    public static class OtherMessage implements IMessage {
+        @Override
+        public void fromBytes(ByteBuf buf) {
+        }
+
+        @Override
+        public void toBytes(ByteBuf buf) {
+        }
+
+        public static class OtherHandler implements IMessageHandler<OtherMessage, IMessage> {
+            @Override
+            public IMessage onMessage(OtherMessage message, MessageContext ctx) {
+                received.add(message);
+                return null;
+            }
+        }
+    }
+
+    public static class UnregisteredMessage extends OtherMessage {
+        public static class UnregisteredHandler implements IMessageHandler<UnregisteredMessage, IMessage> {
+            @Override
+            public IMessage onMessage(UnregisteredMessage message, MessageContext ctx) {
+                return null;
+            }
+        }
+    }
+}
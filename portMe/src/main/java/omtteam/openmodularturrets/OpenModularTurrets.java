@@ -10,6 +10,7 @@ import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import omtteam.openmodularturrets.client.gui.ModularTurretsTab;
 import omtteam.openmodularturrets.compatibility.ModCompatibility;
@@ -17,6 +18,7 @@ import omtteam.openmodularturrets.fixes.TENameFix;
 import omtteam.openmodularturrets.handler.OMTGuiHandler;
 import omtteam.openmodularturrets.proxy.CommonProxy;
 import omtteam.openmodularturrets.reference.Reference;
+import omtteam.openmodularturrets.util.command.CommandTurretLoad;
 import org.apache.logging.log4j.Logger;
 
 @Mod(modid = Reference.MOD_ID, name = Reference.NAME, version = Reference.VERSION, acceptedMinecraftVersions = Reference.ACCEPTED_MINECRAFT_VERSION, dependencies = Reference.DEPENDENCIES)
@@ -60,4 +62,9 @@ public class OpenModularTurrets {
     public void postInit(FMLPostInitializationEvent event) {
         proxy.postInit();
     }
+
+    @Mod.EventHandler
+    public void serverStarting(FMLServerStartingEvent event) {
+        event.registerServerCommand(new CommandTurretLoad());
+    }
 }
\ No newline at end of file
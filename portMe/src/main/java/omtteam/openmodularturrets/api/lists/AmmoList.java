@@ -1,25 +1,32 @@
 package omtteam.openmodularturrets.api.lists;
 
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import omtteam.openmodularturrets.OpenModularTurrets;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by Keridos on 16/11/17.
- * This Class
+ * This Class holds the items disposable turrets may shoot.
+ * An entry with a stack size of 2 allows every damage value of its item, other entries only their own damage value.
+ * Lookups go through an immutable index keyed by item, which is rebuilt and swapped in whenever the list changes.
  */
 public class AmmoList {
     private static final List<ItemStack> list = new ArrayList<>();
+    private static volatile Map<Item, Variants> index = Collections.emptyMap();
 
     public static boolean contains(ItemStack itemStack) {
-        for (ItemStack stack : list) {
-            if (stack.isItemEqual(itemStack) || (stack.getCount() == 2 && itemStack.getItem() == stack.getItem())) {
-                return true;
-            }
+        if (itemStack.isEmpty()) {
+            return false;
         }
-        return false;
+        Variants variants = index.get(itemStack.getItem());
+        return variants != null && variants.matches(itemStack.getItemDamage());
     }
 
     public static void add(ItemStack itemStack) {
@@ -27,6 +34,7 @@ public class AmmoList {
             OpenModularTurrets.getLogger().warn("Tried to add duplicate item to ammo list: " + itemStack.getDisplayName());
         } else {
             list.add(itemStack);
+            rebuildIndex();
         }
     }
 
@@ -35,6 +43,7 @@ public class AmmoList {
         for (ItemStack stack : list) {
             if (stack.isItemEqual(itemStack)) {
                 list.remove(stack);
+                rebuildIndex();
                 return true;
             }
         }
@@ -43,5 +52,34 @@ public class AmmoList {
 
     public static void clear() {
         list.clear();
+        rebuildIndex();
+    }
+
+    private static void rebuildIndex() {
+        Map<Item, Variants> newIndex = new IdentityHashMap<>();
+        for (ItemStack stack : list) {
+            if (stack.isEmpty()) {
+                continue;
+            }
+            Variants variants = newIndex.computeIfAbsent(stack.getItem(), item -> new Variants());
+            if (stack.getCount() == 2) {
+                variants.wildcard = true;
+            } else {
+                variants.damageValues.add(stack.getItemDamage());
+            }
+        }
+        index = Collections.unmodifiableMap(newIndex);
+    }
+
+    /**
+     * The damage values allowed for one item, never modified once published in the index.
+     */
+    private static final class Variants {
+        private final IntOpenHashSet damageValues = new IntOpenHashSet(2);
+        private boolean wildcard;
+
+        private boolean matches(int damage) {
+            return wildcard || damageValues.contains(damage);
+        }
     }
 }
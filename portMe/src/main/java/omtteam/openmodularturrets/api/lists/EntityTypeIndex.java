@@ -0,0 +1,55 @@
+package omtteam.openmodularturrets.api.lists;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityList;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * This Class resolves which of the mob lists (MobBlacklist, MobList, NeutralList) an entity is on.
+ * The result is stored per entity class as a bit mask, so classifying a candidate is one identity map lookup
+ * instead of a string comparison per list entry. Any change to one of the lists clears the cache.
+ * The cache is not thread safe: lookups and list changes have to happen on the server thread (or during mod loading),
+ * entries are filled in on first use.
+ */
+public class EntityTypeIndex {
+    public static final int BLACKLIST = 1;
+    public static final int MOB = 1 << 1;
+    public static final int NEUTRAL = 1 << 2;
+
+    private static final Map<Class<? extends Entity>, Integer> categories = new IdentityHashMap<>();
+
+    /**
+     * @param entity   the entity to classify
+     * @param category one of BLACKLIST, MOB or NEUTRAL
+     * @return true if the entity's type is on the list
+     */
+    public static boolean isIn(Entity entity, int category) {
+        return (getCategories(entity) & category) != 0;
+    }
+
+    public static int getCategories(Entity entity) {
+        Integer mask = categories.get(entity.getClass());
+        if (mask == null) {
+            mask = resolve(EntityList.getEntityString(entity));
+            categories.put(entity.getClass(), mask);
+        }
+        return mask;
+    }
+
+    private static int resolve(String name) {
+        if (name == null) {
+            return 0;
+        }
+        return (MobBlacklist.contains(name) ? BLACKLIST : 0) | (MobList.contains(name) ? MOB : 0)
+                | (NeutralList.contains(name) ? NEUTRAL : 0);
+    }
+
+    /**
+     * Drops all resolved entity types, called whenever one of the lists changes.
+     */
+    static void invalidate() {
+        categories.clear();
+    }
+}
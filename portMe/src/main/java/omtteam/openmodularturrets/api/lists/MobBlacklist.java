@@ -1,12 +1,14 @@
 package omtteam.openmodularturrets.api.lists;
 
-import net.minecraft.entity.EntityList;
 import net.minecraft.entity.EntityLivingBase;
 import omtteam.omlib.util.EntityUtil;
 import omtteam.openmodularturrets.OpenModularTurrets;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Created by Keridos on 16/11/17.
@@ -15,18 +17,14 @@ import java.util.List;
 @SuppressWarnings("unused")
 public class MobBlacklist {
     private static final List<String> list = new ArrayList<>();
+    private static final Set<String> names = new HashSet<>(); // lower case, for lookups
 
     public static boolean contains(String mobIn) {
-        for (String mob : list) {
-            if (mob.equalsIgnoreCase(mobIn)) {
-                return true;
-            }
-        }
-        return false;
+        return mobIn != null && names.contains(mobIn.toLowerCase(Locale.ROOT));
     }
 
     public static boolean contains(EntityLivingBase mobIn) {
-        return contains(EntityList.getEntityString(mobIn));
+        return EntityTypeIndex.isIn(mobIn, EntityTypeIndex.BLACKLIST);
     }
 
     public static void add(String mobIn) {
@@ -34,13 +32,17 @@ public class MobBlacklist {
             OpenModularTurrets.getLogger().warn("Tried to add duplicate mob to mob list: " + mobIn);
         } else {
             list.add(mobIn);
+            names.add(mobIn.toLowerCase(Locale.ROOT));
+            EntityTypeIndex.invalidate();
         }
     }
 
     public static boolean remove(String mobIn) {
         for (String mob : list) {
             if (mob.equalsIgnoreCase(mobIn)) {
-                list.remove(mobIn);
+                list.remove(mob);
+                names.remove(mob.toLowerCase(Locale.ROOT));
+                EntityTypeIndex.invalidate();
                 return true;
             }
         }
@@ -49,5 +51,7 @@ public class MobBlacklist {
 
     public static void clear() {
         list.clear();
+        names.clear();
+        EntityTypeIndex.invalidate();
     }
 }
@@ -1,11 +1,13 @@
 package omtteam.openmodularturrets.api.lists;
 
-import net.minecraft.entity.EntityList;
 import net.minecraft.entity.EntityLivingBase;
 import omtteam.omlib.util.EntityUtil;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 /**
  * Created by Keridos on 16/11/17.
@@ -14,18 +16,14 @@ import java.util.List;
 @SuppressWarnings("unused")
 public class MobList {
     private static final List<String> list = new ArrayList<>();
+    private static final Set<String> names = new HashSet<>(); // lower case, for lookups
 
     public static boolean contains(String mobIn) {
-        for (String mob : list) {
-            if (mob.equalsIgnoreCase(mobIn)) {
-                return true;
-            }
-        }
-        return false;
+        return mobIn != null && names.contains(mobIn.toLowerCase(Locale.ROOT));
     }
 
     public static boolean contains(EntityLivingBase mobIn) {
-        return contains(EntityList.getEntityString(mobIn));
+        return EntityTypeIndex.isIn(mobIn, EntityTypeIndex.MOB);
     }
 
     public static boolean add(String mobIn) {
@@ -33,6 +31,8 @@ public class MobList {
             return false;
         } else {
             list.add(mobIn);
+            names.add(mobIn.toLowerCase(Locale.ROOT));
+            EntityTypeIndex.invalidate();
             return true;
         }
     }
@@ -40,7 +40,9 @@ public class MobList {
     public static boolean remove(String mobIn) {
         for (String mob : list) {
             if (mob.equalsIgnoreCase(mobIn)) {
-                list.remove(mobIn);
+                list.remove(mob);
+                names.remove(mob.toLowerCase(Locale.ROOT));
+                EntityTypeIndex.invalidate();
                 return true;
             }
         }
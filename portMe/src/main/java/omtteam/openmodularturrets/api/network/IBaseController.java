@@ -1,14 +1,22 @@
 package omtteam.openmodularturrets.api.network;
 
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.util.math.BlockPos;
 import omtteam.omlib.api.network.IController;
 import omtteam.omlib.api.permission.TrustedPlayer;
 import omtteam.omlib.util.EnumMachineMode;
 import omtteam.omlib.util.TargetingSettings;
+import omtteam.omlib.util.world.Pos;
+import omtteam.openmodularturrets.api.targeting.ITargetFilter;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
 
+import java.util.Collections;
 import java.util.List;
 
+import static omtteam.openmodularturrets.turret.TurretHeadUtil.getAimPitch;
+import static omtteam.openmodularturrets.turret.TurretHeadUtil.getAimYaw;
+
 /**
  * Created by Keridos on 08/08/17.
  * This interface should be implemented by tile entities that want to control turret bases.
@@ -28,6 +36,33 @@ public interface IBaseController extends IController {
      */
     boolean isEntityValidTarget(Entity target, float yaw, float pitch);
 
+    /**
+     * Return the target filter stages this controller adds to the targeting of its base.
+     * By default this is a single stage calling isEntityValidTarget, override it to provide cheaper
+     * or more specific stages.
+     *
+     * @return List of ITargetFilter
+     */
+    default List<ITargetFilter> getTargetFilters() {
+        return Collections.singletonList(new ITargetFilter() {
+            @Override
+            public String getName() {
+                return "controller";
+            }
+
+            @Override
+            public int getCost() {
+                return 50;
+            }
+
+            @Override
+            public boolean isValidTarget(TurretHead turret, EntityLivingBase entity) {
+                Pos pos = new Pos(turret.getPos());
+                return isEntityValidTarget(entity, getAimYaw(entity, pos), getAimPitch(entity, pos));
+            }
+        });
+    }
+
     /**
      * Return true if the controller overrides base modes. As in on/off and redstone behaviour.
      *
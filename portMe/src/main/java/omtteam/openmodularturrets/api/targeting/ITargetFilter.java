@@ -0,0 +1,36 @@
+package omtteam.openmodularturrets.api.targeting;
+
+import net.minecraft.entity.EntityLivingBase;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
+
+/**
+ * This interface is for stages of the target filter pipeline.
+ * Register global stages with TargetFilterPipeline.registerFilter(ITargetFilter instance),
+ * stages that only apply to one base can be provided by its IBaseController.
+ * Stages are run cheapest first, the first stage rejecting an entity ends the evaluation.
+ */
+public interface ITargetFilter {
+    /**
+     * Return the name of this stage, used for debug output.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Return the relative cost of this stage. Distance and lookup checks should be around 10,
+     * ray traces around 100.
+     *
+     * @return the cost
+     */
+    int getCost();
+
+    /**
+     * Return false if the turret must not target the entity.
+     *
+     * @param turret the turret trying to find a target
+     * @param entity the entity to test
+     * @return boolean
+     */
+    boolean isValidTarget(TurretHead turret, EntityLivingBase entity);
+}
@@ -1,10 +1,9 @@
 package omtteam.openmodularturrets.api.tileentity;
 
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
-import omtteam.omlib.util.world.WorldUtil;
 import omtteam.openmodularturrets.tileentity.turrets.LaserTurretTileEntity;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 import org.lwjgl.util.Color;
 
@@ -25,9 +24,8 @@ public interface ILaserControllerTileEntity extends ITurretBaseAddonTileEntity {
      * @return List of Lasers
      */
     default List<LaserTurretTileEntity> getLasers(World world, BlockPos pos) {
-        List<TileEntity> list = WorldUtil.getTouchingTileEntities(world, TurretHeadUtil.getTurretBase(world, pos).getPos());
         List<LaserTurretTileEntity> lasers = new ArrayList<>();
-        for (TileEntity te : list) {
+        for (TurretHead te : TurretHeadUtil.getTurretBase(world, pos).getTopology().getHeads()) {
             if (te instanceof LaserTurretTileEntity) {
                 lasers.add((LaserTurretTileEntity) te);
             }
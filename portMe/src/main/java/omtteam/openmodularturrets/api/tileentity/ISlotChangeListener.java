@@ -0,0 +1,14 @@
+package omtteam.openmodularturrets.api.tileentity;
+
+/**
+ * This interface is for tile entities that cache information about their inventory.
+ * GUI slots call it when they changed a stack in place, as that does not go through the IItemHandler.
+ */
+public interface ISlotChangeListener {
+    /**
+     * Called after the stack in a slot of the inventory was changed.
+     *
+     * @param slot the slot index in the inventory
+     */
+    void onInventorySlotChanged(int slot);
+}
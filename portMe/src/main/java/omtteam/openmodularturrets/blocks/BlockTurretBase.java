@@ -225,7 +225,7 @@ public class BlockTurretBase extends BlockAbstractCamoTileEntity implements IHas
                 base.setRedstone(false);
             }
             if (base != null) {
-                base.updateExpanders();
+                base.getTopology().markDirty(neighbor);
             }
         }
     }
@@ -290,6 +290,10 @@ public class BlockTurretBase extends BlockAbstractCamoTileEntity implements IHas
     public void breakBlock(World worldIn, BlockPos pos, IBlockState state) {
         if (!worldIn.isRemote) {
             dropItems(worldIn, pos);
+            TileEntity tileEntity = worldIn.getTileEntity(pos);
+            if (tileEntity instanceof TurretBase && ((TurretBase) tileEntity).getNetwork() != null) {
+                ((TurretBase) tileEntity).getNetwork().removeDevice((TurretBase) tileEntity);
+            }
             worldIn.removeTileEntity(pos);
         }
     }
@@ -7,7 +7,6 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.inventory.Slot;
 import net.minecraft.item.ItemStack;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ResourceLocation;
 import omtteam.omlib.api.gui.BlockingAbstractGuiContainer;
@@ -21,7 +20,6 @@ import omtteam.omlib.network.messages.MessageOpenGUITile;
 import omtteam.omlib.reference.OMLibNames;
 import omtteam.omlib.util.DebugHandler;
 import omtteam.omlib.util.player.PlayerUtil;
-import omtteam.omlib.util.world.WorldUtil;
 import omtteam.openmodularturrets.OpenModularTurrets;
 import omtteam.openmodularturrets.client.gui.containers.TurretBaseContainer;
 import omtteam.openmodularturrets.handler.OMTNetworkingHandler;
@@ -35,7 +33,6 @@ import org.lwjgl.opengl.GL11;
 import javax.annotation.Nullable;
 import java.awt.*;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 import static omtteam.omlib.util.GeneralUtil.*;
@@ -338,11 +335,8 @@ public class TurretBaseGui extends BlockingAbstractGuiContainer implements IHasT
 
     private int getBaseUpperBoundRange() {
         int maxRange = 0;
-        List<TileEntity> tileEntities = WorldUtil.getTouchingTileEntities(base.getWorld(), base.getPos());
-        for (TileEntity te : tileEntities) {
-            if (te instanceof TurretHead) {
-                maxRange = Math.max(((TurretHead) te).getTurretBaseRange() + TurretHeadUtil.getRangeUpgrades(base, (TurretHead) te), maxRange);
-            }
+        for (TurretHead turretHead : base.getTopology().getHeads()) {
+            maxRange = Math.max(turretHead.getTurretBaseRange() + TurretHeadUtil.getRangeUpgrades(base, turretHead), maxRange);
         }
         return maxRange;
     }
@@ -21,7 +21,7 @@ public class ExpanderInvContainer extends Container {
 
         for (int x = 0; x < 3; x++) {
             for (int y = 0; y < 3; y++) {
-                this.addSlotToContainer(new AmmoSlot(te.getInventory(), y + x * 3, 62 + y * 18, 17 + x * 18));
+                this.addSlotToContainer(new AmmoSlot(te, te.getInventory(), y + x * 3, 62 + y * 18, 17 + x * 18));
             }
         }
 
@@ -11,10 +11,8 @@ import omtteam.omlib.util.DebugHandler;
 import omtteam.openmodularturrets.client.gui.slot.AddonSlot;
 import omtteam.openmodularturrets.client.gui.slot.AmmoSlot;
 import omtteam.openmodularturrets.client.gui.slot.UpgradeSlot;
-import omtteam.openmodularturrets.handler.OMTNetworkingHandler;
 import omtteam.openmodularturrets.items.AddonMetaItem;
 import omtteam.openmodularturrets.items.UpgradeMetaItem;
-import omtteam.openmodularturrets.network.messages.MessageTurretBase;
 import omtteam.openmodularturrets.tileentity.TurretBase;
 import omtteam.openmodularturrets.util.EnumSlotType;
 
@@ -49,16 +47,16 @@ public class TurretBaseContainer extends Container {
         // TODO: maybe make this support more than 9 ammo slots.
         for (int y = 0; y < 3; y++) {
             for (int x = 0; x < 3; x++) {
-                addSlotToContainer(new AmmoSlot(base.getInventory(), x + y * 3, 8 + x * 18, 17 + y * 18));
+                addSlotToContainer(new AmmoSlot(base, base.getInventory(), x + y * 3, 8 + x * 18, 17 + y * 18));
             }
         }
         if (base.getTier() > 1) {
-            addSlotToContainer(new AddonSlot(base.getInventory(), base.getSlotMap().get(EnumSlotType.AddonSlot).get(0), 72, 18));
-            addSlotToContainer(new AddonSlot(base.getInventory(), base.getSlotMap().get(EnumSlotType.AddonSlot).get(1), 92, 18));
-            addSlotToContainer(new UpgradeSlot(base.getInventory(), base.getSlotMap().get(EnumSlotType.UpgradeSlot).get(0), 72, 52));
+            addSlotToContainer(new AddonSlot(base, base.getInventory(), base.getSlotMap().get(EnumSlotType.AddonSlot).get(0), 72, 18));
+            addSlotToContainer(new AddonSlot(base, base.getInventory(), base.getSlotMap().get(EnumSlotType.AddonSlot).get(1), 92, 18));
+            addSlotToContainer(new UpgradeSlot(base, base.getInventory(), base.getSlotMap().get(EnumSlotType.UpgradeSlot).get(0), 72, 52));
         }
         if (base.getTier() > 4) {
-            addSlotToContainer(new UpgradeSlot(base.getInventory(), base.getSlotMap().get(EnumSlotType.UpgradeSlot).get(1), 92, 52));
+            addSlotToContainer(new UpgradeSlot(base, base.getInventory(), base.getSlotMap().get(EnumSlotType.UpgradeSlot).get(1), 92, 52));
         }
 
         // Determine the slot range for each type( According to the class constructor )
@@ -143,6 +141,10 @@ public class TurretBaseContainer extends Container {
         return stack;
     }
 
+    public TurretBase getBase() {
+        return base;
+    }
+
     @Override
     public void putStackInSlot(int slotID, ItemStack stack) {
         super.putStackInSlot(slotID, stack);
@@ -157,7 +159,7 @@ public class TurretBaseContainer extends Container {
         DebugHandler.getInstance().setListeners(this.listeners);
         for (IContainerListener listener : this.listeners) {
             if (listener instanceof EntityPlayerMP) {
-                OMTNetworkingHandler.INSTANCE.sendTo(new MessageTurretBase(this.base), (EntityPlayerMP) listener);
+                base.getSyncTracker().sync((EntityPlayerMP) listener);
             }
         }
         base.updateMaxRange();
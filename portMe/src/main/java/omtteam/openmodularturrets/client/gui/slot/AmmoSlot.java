@@ -3,15 +3,26 @@ package omtteam.openmodularturrets.client.gui.slot;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.SlotItemHandler;
+import omtteam.openmodularturrets.api.tileentity.ISlotChangeListener;
 
 import javax.annotation.Nonnull;
 
 import static omtteam.openmodularturrets.util.OMTUtil.isItemStackValidAmmo;
 
 public class AmmoSlot extends SlotItemHandler {
+    private final ISlotChangeListener listener;
+
     @SuppressWarnings("SameParameterValue")
-    public AmmoSlot(IItemHandler inventory, int par2, int par3, int par4) {
+    public AmmoSlot(ISlotChangeListener listener, IItemHandler inventory, int par2, int par3, int par4) {
         super(inventory, par2, par3, par4);
+        this.listener = listener;
+    }
+
+    // stacks grown or shrunk in place by the container do not notify the inventory
+    @Override
+    public void onSlotChanged() {
+        super.onSlotChanged();
+        listener.onInventorySlotChanged(this.getSlotIndex());
     }
 
     @Override
@@ -3,14 +3,25 @@ package omtteam.openmodularturrets.client.gui.slot;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.SlotItemHandler;
+import omtteam.openmodularturrets.api.tileentity.ISlotChangeListener;
 import omtteam.openmodularturrets.items.UpgradeMetaItem;
 
 import javax.annotation.Nonnull;
 
 public class UpgradeSlot extends SlotItemHandler {
+    private final ISlotChangeListener listener;
+
     @SuppressWarnings("SameParameterValue")
-    public UpgradeSlot(IItemHandler inventory, int par2, int par3, int par4) {
+    public UpgradeSlot(ISlotChangeListener listener, IItemHandler inventory, int par2, int par3, int par4) {
         super(inventory, par2, par3, par4);
+        this.listener = listener;
+    }
+
+    // stacks grown or shrunk in place by the container do not notify the inventory
+    @Override
+    public void onSlotChanged() {
+        super.onSlotChanged();
+        listener.onInventorySlotChanged(this.getSlotIndex());
     }
 
     @Override
@@ -32,11 +32,15 @@ public abstract class AbstractTurretRenderer extends TileEntitySpecialRenderer {
      */
     protected abstract byte addonsRendered();
 
-    protected void render(TurretHead turretHead, boolean doRotation, ModelAbstractTurret model, double x, double y, double z) {
+    protected void render(TurretHead turretHead, boolean doRotation, ModelAbstractTurret model, double x, double y, double z, float partialTicks) {
         int rotation;
-        AbstractDirectedTurret directedTurret = null;
+        float rotationXY = 0F, rotationXZ = 0F;
         if (doRotation) {
-            directedTurret = (AbstractDirectedTurret) turretHead;
+            AbstractDirectedTurret directedTurret = (AbstractDirectedTurret) turretHead;
+            float yaw = directedTurret.getRenderYaw(partialTicks);
+            float pitch = directedTurret.getRenderPitch(partialTicks);
+            rotationXY = MathUtil.getRotationXYFromYawPitch(yaw, pitch);
+            rotationXZ = MathUtil.getRotationXZFromYawPitch(yaw, pitch);
         }
         GL11.glPushMatrix();
         GL11.glTranslatef((float) x + 0.5F, (float) y + 1.5F, (float) z + 0.5F);
@@ -60,7 +64,7 @@ public abstract class AbstractTurretRenderer extends TileEntitySpecialRenderer {
             GL11.glRotatef(rotation * 90, 0.0F, 1.0F, 0.0F);
             GL11.glScalef(1.0F, -1F, -1F);
             if (doRotation) {
-                model.setRotationForTarget(MathUtil.getRotationXYFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()), MathUtil.getRotationXZFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()));
+                model.setRotationForTarget(rotationXY, rotationXZ);
             }
             model.setBaseRotation(turretHead);
         }
@@ -73,7 +77,7 @@ public abstract class AbstractTurretRenderer extends TileEntitySpecialRenderer {
                 ResourceLocation texturesAmp = (new ResourceLocation(Reference.MOD_ID + ":textures/blocks/addon_damage_amp.png"));
                 Minecraft.getMinecraft().renderEngine.bindTexture(texturesAmp);
                 if (doRotation) {
-                    amp.setRotationForTarget(MathUtil.getRotationXYFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()), MathUtil.getRotationXZFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()));
+                    amp.setRotationForTarget(rotationXY, rotationXZ);
                 }
                 amp.renderAll();
             }
@@ -82,7 +86,7 @@ public abstract class AbstractTurretRenderer extends TileEntitySpecialRenderer {
                 ResourceLocation texturesSolar = (new ResourceLocation(Reference.MOD_ID + ":textures/blocks/addon_solar_panel.png"));
                 Minecraft.getMinecraft().renderEngine.bindTexture(texturesSolar);
                 if (doRotation) {
-                    solar.setRotationForTarget(MathUtil.getRotationXYFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()), MathUtil.getRotationXZFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()));
+                    solar.setRotationForTarget(rotationXY, rotationXZ);
                 }
                 solar.renderAll();
             }
@@ -91,7 +95,7 @@ public abstract class AbstractTurretRenderer extends TileEntitySpecialRenderer {
                 ResourceLocation texturesReac = (new ResourceLocation(Reference.MOD_ID + ":textures/blocks/addon_redstone_reactor.png"));
                 Minecraft.getMinecraft().renderEngine.bindTexture(texturesReac);
                 if (doRotation) {
-                    reac.setRotationForTarget(MathUtil.getRotationXYFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()), MathUtil.getRotationXZFromYawPitch(directedTurret.getYaw(), directedTurret.getPitch()));
+                    reac.setRotationForTarget(rotationXY, rotationXZ);
                 }
                 reac.renderAll();
             }
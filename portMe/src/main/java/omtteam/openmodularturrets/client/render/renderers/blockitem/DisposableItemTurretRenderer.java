@@ -36,6 +36,6 @@ class DisposableItemTurretRenderer extends AbstractTurretRenderer {
         ResourceLocation textures = (new ResourceLocation(Reference.MOD_ID + ":textures/blocks/dispose_item_turret.png"));
         Minecraft.getMinecraft().renderEngine.bindTexture(textures);
 
-        this.render(turretHead, doRotation, model, x, y, z);
+        this.render(turretHead, doRotation, model, x, y, z, partialTicks);
     }
 }
@@ -33,6 +33,6 @@ public class IncendiaryTurretRenderer extends AbstractTurretRenderer {
         ResourceLocation textures = (new ResourceLocation(Reference.MOD_ID + ":textures/blocks/incendiary_turret.png"));
         Minecraft.getMinecraft().renderEngine.bindTexture(textures);
 
-        this.render(turretHead, doRotation, model, x, y, z);
+        this.render(turretHead, doRotation, model, x, y, z, partialTicks);
     }
 }
@@ -33,6 +33,6 @@ class MachineGunTurretRenderer extends AbstractTurretRenderer {
         ResourceLocation textures = (new ResourceLocation(Reference.MOD_ID + ":textures/blocks/machine_gun_turret.png"));
         Minecraft.getMinecraft().renderEngine.bindTexture(textures);
 
-        this.render(turretHead, doRotation, model, x, y, z);
+        this.render(turretHead, doRotation, model, x, y, z, partialTicks);
     }
 }
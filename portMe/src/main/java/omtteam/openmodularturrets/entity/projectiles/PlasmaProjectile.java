@@ -10,7 +10,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
-import omtteam.omlib.network.OMLibNetworkingHandler;
+import omtteam.omlib.network.PacketBatcher;
 import omtteam.omlib.network.messages.render.MessageSpawnParticleQuad;
 import omtteam.openmodularturrets.blocks.turretheads.BlockAbstractTurretHead;
 import omtteam.openmodularturrets.entity.projectiles.damagesources.ArmorBypassDamageSource;
@@ -60,8 +60,8 @@ public class PlasmaProjectile extends TurretProjectile {
             MessageSpawnParticleQuad smokeParticles = new MessageSpawnParticleQuad(EnumParticleTypes.SMOKE_LARGE.getParticleID(),
                                                                                    this.getEntityWorld().provider.getDimension(),
                                                                                    posX, posY, posZ, 2, 1, 2, 0.2D, 15);
-            OMLibNetworkingHandler.INSTANCE.sendToAllTracking(flameParticles, this);
-            OMLibNetworkingHandler.INSTANCE.sendToAllTracking(smokeParticles, this);
+            PacketBatcher.queueToAllTracking(flameParticles, this);
+            PacketBatcher.queueToAllTracking(smokeParticles, this);
 
             AxisAlignedBB axis = new AxisAlignedBB(this.posX - 2, this.posY - 2, this.posZ - 2,
                                                    this.posX + 2, this.posY + 2, this.posZ + 2);
@@ -16,6 +16,7 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.common.registry.IEntityAdditionalSpawnData;
 import omtteam.openmodularturrets.tileentity.TurretBase;
+import omtteam.openmodularturrets.turret.LoadGovernor;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 import omtteam.openmodularturrets.util.OMTUtil;
 
@@ -98,6 +99,14 @@ public abstract class TurretProjectile extends EntityThrowable implements IEntit
 
     @Override
     public void onUpdate() {
+        long start = LoadGovernor.startTiming();
+        updateProjectile();
+        if (!this.getEntityWorld().isRemote) {
+            LoadGovernor.stopTiming(start);
+        }
+    }
+
+    private void updateProjectile() {
         if (this.ticksExisted > 40) {
             this.setDead();
             return;
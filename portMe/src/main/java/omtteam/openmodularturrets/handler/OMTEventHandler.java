@@ -6,18 +6,27 @@ import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.Item;
 import net.minecraft.util.EnumHand;
 import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.client.event.ModelRegistryEvent;
 import net.minecraftforge.common.config.Config;
 import net.minecraftforge.common.config.ConfigManager;
 import net.minecraftforge.common.util.FakePlayer;
 import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.living.LivingAttackEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.living.LivingDropsEvent;
 import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
 import omtteam.openmodularturrets.OpenModularTurrets;
 import omtteam.openmodularturrets.entity.projectiles.damagesources.AbstractOMTDamageSource;
 import omtteam.openmodularturrets.handler.config.OMTConfig;
@@ -25,6 +34,13 @@ import omtteam.openmodularturrets.init.ModBlocks;
 import omtteam.openmodularturrets.init.ModItems;
 import omtteam.openmodularturrets.init.ModSounds;
 import omtteam.openmodularturrets.reference.Reference;
+import omtteam.openmodularturrets.turret.LineOfSightCache;
+import omtteam.openmodularturrets.turret.LineOfSightTracer;
+import omtteam.openmodularturrets.turret.LoadGovernor;
+import omtteam.openmodularturrets.turret.RotationSync;
+import omtteam.openmodularturrets.turret.TargetIndex;
+import omtteam.openmodularturrets.turret.TargetTracker;
+import omtteam.openmodularturrets.turret.TickScheduler;
 import omtteam.openmodularturrets.util.OMTFakePlayer;
 import omtteam.openmodularturrets.util.OMTUtil;
 
@@ -115,6 +131,80 @@ public class OMTEventHandler {
         }
     }
 
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void entityJoinWorldEvent(EntityJoinWorldEvent event) {
+        if (event.getEntity() instanceof EntityLivingBase) {
+            EntityLivingBase entity = (EntityLivingBase) event.getEntity();
+            TargetIndex.onEntityUpdate(entity, MathHelper.floor(entity.posX) >> 4, MathHelper.floor(entity.posZ) >> 4);
+        }
+    }
+
+    @SubscribeEvent
+    public void entityEnteringChunkEvent(EntityEvent.EnteringChunk event) {
+        if (event.getEntity() instanceof EntityLivingBase) {
+            TargetIndex.onEntityUpdate((EntityLivingBase) event.getEntity(), event.getNewChunkX(), event.getNewChunkZ());
+        }
+    }
+
+    @SubscribeEvent
+    public void chunkLoadEvent(ChunkEvent.Load event) {
+        LineOfSightTracer.onChunkChanged(event.getWorld(), event.getChunk().x, event.getChunk().z);
+        if (!event.getWorld().isRemote) {
+            LineOfSightCache.onChunkChanged(event.getWorld(), event.getChunk().x, event.getChunk().z);
+        }
+    }
+
+    @SubscribeEvent
+    public void chunkUnloadEvent(ChunkEvent.Unload event) {
+        LineOfSightTracer.onChunkChanged(event.getWorld(), event.getChunk().x, event.getChunk().z);
+        if (!event.getWorld().isRemote) {
+            TargetIndex.onChunkUnload(event.getWorld(), event.getChunk().x, event.getChunk().z);
+            LineOfSightCache.onChunkChanged(event.getWorld(), event.getChunk().x, event.getChunk().z);
+        }
+    }
+
+    @SubscribeEvent
+    public void worldUnloadEvent(WorldEvent.Unload event) {
+        // the client tracer holds on to the client world until it is dropped here
+        LineOfSightTracer.onWorldUnload(event.getWorld());
+        if (!event.getWorld().isRemote) {
+            TargetIndex.onWorldUnload(event.getWorld());
+            LineOfSightCache.onWorldUnload(event.getWorld());
+            TargetTracker.onWorldUnload(event.getWorld());
+            TickScheduler.onWorldUnload(event.getWorld());
+            RotationSync.onWorldUnload(event.getWorld());
+        }
+    }
+
+    @SubscribeEvent
+    public void blockChangeEvent(BlockEvent.NeighborNotifyEvent event) {
+        if (!event.getWorld().isRemote) {
+            LineOfSightTracer.onBlockChange(event.getWorld(), event.getPos());
+            LineOfSightCache.onBlockChange(event.getWorld(), event.getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public void worldTickEvent(TickEvent.WorldTickEvent event) {
+        if (event.side != Side.SERVER) {
+            return;
+        }
+        if (event.phase == TickEvent.Phase.START) {
+            LineOfSightCache.onWorldTick(event.world);
+            TickScheduler.onWorldTick(event.world);
+        } else {
+            TargetTracker.onWorldTick(event.world);
+            RotationSync.onWorldTick(event.world);
+        }
+    }
+
+    @SubscribeEvent
+    public void serverTickEvent(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.END) {
+            LoadGovernor.onServerTick();
+        }
+    }
+
     @SubscribeEvent
     public void configReloadEvent(ConfigChangedEvent.OnConfigChangedEvent event) {
         if (event.getModID().equalsIgnoreCase(Reference.MOD_ID)) {
@@ -3,6 +3,7 @@ package omtteam.openmodularturrets.handler;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 import net.minecraftforge.fml.relauncher.Side;
+import omtteam.omlib.network.PacketBatcher;
 import omtteam.openmodularturrets.network.messages.*;
 import omtteam.openmodularturrets.reference.Reference;
 
@@ -45,5 +46,8 @@ public class OMTNetworkingHandler {
 
         INSTANCE.registerMessage(MessageUpdateTurret.MessageHandlerUpdateTurret.class, MessageUpdateTurret.class,
                                  11, Side.CLIENT);
+
+        PacketBatcher.register(INSTANCE, Reference.MOD_ID, 7, MessageTurretBase.class, MessageTurretBase.MessageHandlerTurretBase.class);
+        PacketBatcher.register(INSTANCE, Reference.MOD_ID, 11, MessageUpdateTurret.class, MessageUpdateTurret.MessageHandlerUpdateTurret.class);
     }
 }
@@ -31,9 +31,9 @@ public class OMTConfig {
 
     private static void parseDisposableAmmoList() {
         try {
+            AmmoList.clear();
             for (String itemListEntry : GENERAL.stringAmmoAllowList) {
                 String[] item = itemListEntry.split(":");
-                AmmoList.clear();
                 if (item.length == 3) {
                     AmmoList.add(new ItemStack(getItem(item[0], item[1]), 1, Integer.parseInt(item[2])));
                 } else {
@@ -48,7 +48,6 @@ public class OMTConfig {
 
     private static void parseMobBlacklist() {
         try {
-            if (GENERAL.stringMobBlackList.length == 0) return;
             MobBlacklist.clear();
             for (String itemListEntry : GENERAL.stringMobBlackList) {
                 MobBlacklist.add(itemListEntry);
@@ -78,6 +77,13 @@ public class OMTConfig {
 
         @Config.Comment("Which entities should not be targeted by turrets?")
         public String[] stringMobBlackList = new String[]{"ArmorStand"};
+
+        @Config.Comment("If turrets should search, aim and check line of sight less often while they use more than their tick budget")
+        public boolean loadGovernorEnabled = true;
+
+        @Config.Comment("How many milliseconds per server tick turrets, bases and their projectiles may use before fidelity is lowered")
+        @Config.RangeDouble(min = 0.1D, max = 1000D)
+        public double turretTickBudgetMillis = 10D;
     }
 
     public static class ConfigMisc {
@@ -132,6 +138,25 @@ public class OMTConfig {
         @Config.RangeInt(min = 1)
         public int turretTargetSearchTicks = 10;
 
+        @Config.Comment("How many ticks a multi targeting base keeps its target assignment before distributing targets again")
+        @Config.RangeInt(min = 1)
+        public int multiTargetReassignTicks = 20;
+
+        @Config.Comment("Rank targets like older versions did (int scores, cube root distance) instead of long scores with squared distance")
+        public boolean legacyTargetScoring = false;
+
+        @Config.Comment("How many ticks an idle turret sleeps before searching for targets again, if it is not woken up earlier")
+        @Config.RangeInt(min = 1)
+        public int turretDormantPollTicks = 100;
+
+        @Config.Comment("How many degrees yaw or pitch of a turret have to change before the new rotation is sent to clients")
+        @Config.RangeDouble(min = 0D, max = 45D)
+        public double rotationSyncThreshold = 1D;
+
+        @Config.Comment("How many degrees per tick clients turn turret heads towards their target between rotation updates")
+        @Config.RangeDouble(min = 1D, max = 180D)
+        public double turretRotationSpeed = 30D;
+
         @Config.Comment("If turrets should warn players with a message if entering their warning range")
         public boolean turretWarnMessage = true;
 
@@ -176,5 +201,8 @@ public class OMTConfig {
         @Config.RequiresMcRestart
         public boolean allowBaseCamo = true;
         public boolean baseBreakable = false;
+        @Config.RangeInt(min = 1, max = 200)
+        @Config.Comment("At most every how many ticks players with an open base GUI are sent changes of the base")
+        public int baseSyncInterval = 2;
     }
 }
\ No newline at end of file
@@ -30,10 +30,24 @@ import static omtteam.openmodularturrets.compatibility.valkyrienwarfare.VWUtil.g
 
 /**
  * Created by Keridos on 05.10.14.
- * This Class is the Message that the electric floodlights TileEntity uses.
+ * This Class is the Message that syncs a turret base to clients.
+ * Only the field groups set in mask are written, see BaseSyncTracker for the per player deltas.
+ * Energy is either sent exactly or as a percentage of the capacity.
  */
 @SuppressWarnings("unused")
 public class MessageTurretBase implements IMessage {
+    public static final int TIER = 1;
+    public static final int OWNER = 1 << 1;
+    public static final int ENERGY = 1 << 2;
+    public static final int SETTINGS = 1 << 3;
+    public static final int RANGE = 1 << 4;
+    public static final int STATS = 1 << 5;
+    public static final int CAMO = 1 << 6;
+    public static final int TRUST = 1 << 7;
+    public static final int ALL = 0xFF;
+
+    private int mask;
+    private boolean exactEnergy;
     private int x, y, z, rfStorageCurrent, rfStorageMax, tier, camoBlockMeta, range, maxRange, kills, playerKills, lightValue, lightOpacity;
     private boolean attacksMobs, attacksNeutrals, attacksPlayers, multiTargeting;
     private String camoBlockRegName;
@@ -45,6 +59,17 @@ public class MessageTurretBase implements IMessage {
     }
 
     public MessageTurretBase(TileEntity tileEntity) {
+        this(tileEntity, ALL, true);
+    }
+
+    /**
+     * @param tileEntity  the turret base
+     * @param mask        the field groups to send
+     * @param exactEnergy false to send the energy as a percentage
+     */
+    public MessageTurretBase(TileEntity tileEntity, int mask, boolean exactEnergy) {
+        this.mask = mask;
+        this.exactEnergy = exactEnergy;
         if (tileEntity instanceof TurretBase) {
             TurretBase base = (TurretBase) tileEntity;
             BlockPos pos = getTransformedBlockPos(base);
@@ -78,30 +103,47 @@ public class MessageTurretBase implements IMessage {
         this.x = buf.readInt();
         this.y = buf.readInt();
         this.z = buf.readInt();
-        this.tier = buf.readInt();
-        this.lightValue = buf.readInt();
-        this.lightOpacity = buf.readInt();
-        this.owner = Player.readFromByteBuf(buf);
-        this.rfStorageCurrent = buf.readInt();
-        this.rfStorageMax = buf.readInt();
-        this.range = buf.readInt();
-        this.maxRange = buf.readInt();
-        this.kills = buf.readInt();
-        this.playerKills = buf.readInt();
-        this.mode = EnumMachineMode.values()[buf.readInt()];
-        this.attacksMobs = buf.readBoolean();
-        this.attacksNeutrals = buf.readBoolean();
-        this.attacksPlayers = buf.readBoolean();
-        this.multiTargeting = buf.readBoolean();
-        this.camoBlockRegName = ByteBufUtils.readUTF8String(buf);
-        this.camoBlockMeta = buf.readInt();
-        int lengthOfTPList = buf.readInt();
-        if (lengthOfTPList > 0) {
+        this.mask = buf.readUnsignedByte();
+        if ((mask & TIER) != 0) {
+            this.tier = buf.readByte();
+        }
+        if ((mask & OWNER) != 0) {
+            this.owner = Player.readFromByteBuf(buf);
+        }
+        if ((mask & ENERGY) != 0) {
+            this.exactEnergy = buf.readBoolean();
+            this.rfStorageMax = buf.readInt();
+            this.rfStorageCurrent = exactEnergy ? buf.readInt() : (int) ((long) rfStorageMax * buf.readUnsignedByte() / 100);
+        }
+        if ((mask & SETTINGS) != 0) {
+            int flags = buf.readUnsignedByte();
+            this.attacksMobs = (flags & 1) != 0;
+            this.attacksNeutrals = (flags & 2) != 0;
+            this.attacksPlayers = (flags & 4) != 0;
+            this.multiTargeting = (flags & 8) != 0;
+            this.mode = EnumMachineMode.values()[buf.readUnsignedByte()];
+        }
+        if ((mask & RANGE) != 0) {
+            this.range = buf.readInt();
+            this.maxRange = buf.readInt();
+        }
+        if ((mask & STATS) != 0) {
+            this.kills = buf.readInt();
+            this.playerKills = buf.readInt();
+        }
+        if ((mask & CAMO) != 0) {
+            this.lightValue = buf.readInt();
+            this.lightOpacity = buf.readInt();
+            this.camoBlockRegName = ByteBufUtils.readUTF8String(buf);
+            this.camoBlockMeta = buf.readInt();
+        }
+        if ((mask & TRUST) != 0) {
+            int lengthOfTPList = buf.readInt();
             for (int i = 0; i < lengthOfTPList; i++) {
                 String name = ByteBufUtils.readUTF8String(buf);
                 TrustedPlayer trustedPlayer = new TrustedPlayer(name);
-                trustedPlayer.setUuid(UUID.fromString(ByteBufUtils.readUTF8String(buf)));
-                trustedPlayer.setAccessLevel(EnumAccessLevel.values()[buf.readInt()]);
+                trustedPlayer.setUuid(new UUID(buf.readLong(), buf.readLong()));
+                trustedPlayer.setAccessLevel(EnumAccessLevel.values()[buf.readUnsignedByte()]);
                 trustedPlayers.add(trustedPlayer);
             }
         }
@@ -112,37 +154,59 @@ public class MessageTurretBase implements IMessage {
         buf.writeInt(x);
         buf.writeInt(y);
         buf.writeInt(z);
-        buf.writeInt(tier);
-        buf.writeInt(lightValue);
-        buf.writeInt(lightOpacity);
-        Player.writeToByteBuf(owner, buf);
-        buf.writeInt(rfStorageCurrent);
-        buf.writeInt(rfStorageMax);
-        buf.writeInt(range);
-        buf.writeInt(maxRange);
-        buf.writeInt(kills);
-        buf.writeInt(playerKills);
-        buf.writeInt(mode.ordinal());
-        buf.writeBoolean(attacksMobs);
-        buf.writeBoolean(attacksNeutrals);
-        buf.writeBoolean(attacksPlayers);
-        buf.writeBoolean(multiTargeting);
-        ByteBufUtils.writeUTF8String(buf, camoBlockRegName);
-        buf.writeInt(camoBlockMeta);
-        buf.writeInt(trustedPlayers.size());
-        if (trustedPlayers.size() > 0) {
+        buf.writeByte(mask);
+        if ((mask & TIER) != 0) {
+            buf.writeByte(tier);
+        }
+        if ((mask & OWNER) != 0) {
+            Player.writeToByteBuf(owner, buf);
+        }
+        if ((mask & ENERGY) != 0) {
+            buf.writeBoolean(exactEnergy);
+            buf.writeInt(rfStorageMax);
+            if (exactEnergy) {
+                buf.writeInt(rfStorageCurrent);
+            } else {
+                buf.writeByte(getEnergyPercentage(rfStorageCurrent, rfStorageMax));
+            }
+        }
+        if ((mask & SETTINGS) != 0) {
+            buf.writeByte((attacksMobs ? 1 : 0) | (attacksNeutrals ? 2 : 0) | (attacksPlayers ? 4 : 0) | (multiTargeting ? 8 : 0));
+            buf.writeByte(mode.ordinal());
+        }
+        if ((mask & RANGE) != 0) {
+            buf.writeInt(range);
+            buf.writeInt(maxRange);
+        }
+        if ((mask & STATS) != 0) {
+            buf.writeInt(kills);
+            buf.writeInt(playerKills);
+        }
+        if ((mask & CAMO) != 0) {
+            buf.writeInt(lightValue);
+            buf.writeInt(lightOpacity);
+            ByteBufUtils.writeUTF8String(buf, camoBlockRegName);
+            buf.writeInt(camoBlockMeta);
+        }
+        if ((mask & TRUST) != 0) {
+            buf.writeInt(trustedPlayers.size());
             for (TrustedPlayer trustedPlayer : trustedPlayers) {
                 ByteBufUtils.writeUTF8String(buf, trustedPlayer.getName());
-                ByteBufUtils.writeUTF8String(buf, trustedPlayer.getUuid().toString());
-                buf.writeInt(trustedPlayer.getAccessLevel().ordinal());
+                buf.writeLong(trustedPlayer.getUuid().getMostSignificantBits());
+                buf.writeLong(trustedPlayer.getUuid().getLeastSignificantBits());
+                buf.writeByte(trustedPlayer.getAccessLevel().ordinal());
             }
         }
     }
 
+    public static int getEnergyPercentage(int stored, int max) {
+        return max <= 0 ? 0 : (int) Math.min(100L, (long) stored * 100 / max);
+    }
+
     @Override
     public String toString() {
         return String.format(
-                "MessageTurretBase - x:%s, y:%s, z:%s, owner:%s, rfstorage:%s", x, y, z, owner, rfStorageCurrent);
+                "MessageTurretBase - x:%s, y:%s, z:%s, mask:%s, owner:%s, rfstorage:%s", x, y, z, mask, owner, rfStorageCurrent);
     }
 
     public static class MessageHandlerTurretBase implements IMessageHandler<MessageTurretBase, IMessage> {
@@ -156,27 +220,42 @@ public class MessageTurretBase implements IMessage {
                                                                                                                      message.z));
                 if (tileEntity instanceof TurretBase) {
                     TurretBase base = (TurretBase) tileEntity;
+                    int mask = message.mask;
+                    if ((mask & TIER) != 0) {
+                        base.setTier(message.tier);
+                    }
+                    if ((mask & OWNER) != 0) {
+                        base.setOwner(message.owner);
+                    }
                     OMEnergyStorage storage = (OMEnergyStorage) base.getCapability(CapabilityEnergy.ENERGY, EnumFacing.DOWN);
-                    base.setOwner(message.owner);
-                    if (storage != null) {
-                        storage.setEnergyStored(message.rfStorageCurrent);
+                    if ((mask & ENERGY) != 0 && storage != null) {
                         storage.setCapacity(message.rfStorageMax);
+                        storage.setEnergyStored(message.rfStorageCurrent);
+                    }
+                    if ((mask & SETTINGS) != 0) {
+                        base.setAttacksMobs(message.attacksMobs);
+                        base.setAttacksNeutrals(message.attacksNeutrals);
+                        base.setAttacksPlayers(message.attacksPlayers);
+                        base.setMultiTargeting(message.multiTargeting);
+                        base.setMode(message.mode);
+                    }
+                    if ((mask & RANGE) != 0) {
+                        base.getTargetingSettings().setRange(message.range);
+                        base.getTargetingSettings().setMaxRange(message.maxRange);
+                    }
+                    if ((mask & STATS) != 0) {
+                        base.setKills(message.kills);
+                        base.setPlayerKills(message.playerKills);
+                    }
+                    if ((mask & CAMO) != 0) {
+                        base.getCamoSettings().setLightValue(message.lightValue);
+                        base.getCamoSettings().setLightOpacity(message.lightOpacity);
+                        base.setCamoState(Objects.requireNonNull(ForgeRegistries.BLOCKS.getValue(
+                                new ResourceLocation(message.camoBlockRegName))).getStateFromMeta(message.camoBlockMeta));
+                    }
+                    if ((mask & TRUST) != 0) {
+                        base.getTrustManager().setTrustedPlayers(message.trustedPlayers);
                     }
-                    base.setAttacksMobs(message.attacksMobs);
-                    base.setAttacksNeutrals(message.attacksNeutrals);
-                    base.setAttacksPlayers(message.attacksPlayers);
-                    base.setMultiTargeting(message.multiTargeting);
-                    base.getTrustManager().setTrustedPlayers(message.trustedPlayers);
-                    base.setTier(message.tier);
-                    base.getCamoSettings().setLightValue(message.lightValue);
-                    base.getCamoSettings().setLightOpacity(message.lightOpacity);
-                    base.setMode(message.mode);
-                    base.setCamoState(Objects.requireNonNull(ForgeRegistries.BLOCKS.getValue(
-                            new ResourceLocation(message.camoBlockRegName))).getStateFromMeta(message.camoBlockMeta));
-                    base.getTargetingSettings().setRange(message.range);
-                    base.getTargetingSettings().setMaxRange(message.maxRange);
-                    base.setKills(message.kills);
-                    base.setPlayerKills(message.playerKills);
                 }
             });
             return null;
@@ -4,88 +4,135 @@ import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 import net.minecraftforge.fml.client.FMLClientHandler;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import omtteam.openmodularturrets.tileentity.turrets.AbstractDirectedTurret;
+import omtteam.openmodularturrets.turret.RotationSync;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static omtteam.omlib.proxy.ClientProxy.getWorld;
-import static omtteam.openmodularturrets.compatibility.valkyrienwarfare.VWUtil.getTransformedBlockPos;
 
+/**
+ * This Class is the Message that syncs the rotation of turret heads, batched per chunk (see RotationSync).
+ * Each head is sent as its position inside the chunk (two bytes), yaw and pitch quantized to 16 bits
+ * and the id of the target it tracks, which the client keeps aiming at with the rotation speed of the message.
+ */
 @SuppressWarnings("unused")
 public class MessageUpdateTurret implements IMessage {
-    private int x, y, z;
-    private float yaw, pitch;
+    private final List<ChunkBatch> batches = new ArrayList<>();
+    private short rotationSpeed;
 
     public MessageUpdateTurret() {
     }
 
-    public MessageUpdateTurret(AbstractDirectedTurret turretHead) {
-        BlockPos pos = getTransformedBlockPos(turretHead);
+    /**
+     * @param rotationSpeed how many degrees per tick clients may turn heads towards their target
+     */
+    public MessageUpdateTurret(float rotationSpeed) {
+        this.rotationSpeed = RotationSync.quantize(rotationSpeed);
+    }
 
-        this.x = pos.getX();
-        this.y = pos.getY();
-        this.z = pos.getZ();
-        this.yaw = turretHead.getYaw();
-        this.pitch = turretHead.getPitch();
+    public void add(ChunkBatch batch) {
+        batches.add(batch);
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
-        this.x = buf.readInt();
-        this.y = buf.readInt();
-        this.z = buf.readInt();
-        this.yaw = buf.readFloat();
-        this.pitch = buf.readFloat();
+        this.rotationSpeed = buf.readShort();
+        int batchCount = buf.readUnsignedShort();
+        for (int i = 0; i < batchCount; i++) {
+            ChunkBatch batch = new ChunkBatch(buf.readInt(), buf.readInt());
+            int size = buf.readUnsignedShort();
+            for (int j = 0; j < size; j++) {
+                batch.add(buf.readShort(), buf.readShort(), buf.readShort(), ByteBufUtils.readVarInt(buf, 5) - 1);
+            }
+            batches.add(batch);
+        }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-        buf.writeInt(this.x);
-        buf.writeInt(this.y);
-        buf.writeInt(this.z);
-        buf.writeFloat(this.yaw);
-        buf.writeFloat(this.pitch);
+        buf.writeShort(rotationSpeed);
+        buf.writeShort(batches.size());
+        for (ChunkBatch batch : batches) {
+            buf.writeInt(batch.chunkX);
+            buf.writeInt(batch.chunkZ);
+            buf.writeShort(batch.size);
+            for (int i = 0; i < batch.size; i++) {
+                buf.writeShort(batch.positions[i]);
+                buf.writeShort(batch.yaws[i]);
+                buf.writeShort(batch.pitches[i]);
+                ByteBufUtils.writeVarInt(buf, batch.targets[i] + 1, 5);
+            }
+        }
     }
 
-    private int getX() {
-        return x;
-    }
+    /**
+     * This Class holds the rotations of the heads in one chunk, it is built once and shared by the messages of all players.
+     */
+    public static class ChunkBatch {
+        private final int chunkX, chunkZ;
+        private short[] positions = new short[4];
+        private short[] yaws = new short[4];
+        private short[] pitches = new short[4];
+        private int[] targets = new int[4];
+        private int size;
 
-    private int getY() {
-        return y;
-    }
+        public ChunkBatch(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
 
-    private int getZ() {
-        return z;
-    }
+        /**
+         * @param targetId the entity id of the tracked target, -1 for none
+         */
+        public void add(BlockPos pos, short yaw, short pitch, int targetId) {
+            add((short) ((pos.getX() & 15) << 12 | (pos.getZ() & 15) << 8 | (pos.getY() & 255)), yaw, pitch, targetId);
+        }
 
-    public float getYaw() {
-        return yaw;
-    }
+        private void add(short position, short yaw, short pitch, int targetId) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                yaws = Arrays.copyOf(yaws, size * 2);
+                pitches = Arrays.copyOf(pitches, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            positions[size] = position;
+            yaws[size] = yaw;
+            pitches[size] = pitch;
+            targets[size] = targetId;
+            size++;
+        }
 
-    public float getPitch() {
-        return pitch;
+        private BlockPos getPos(int i) {
+            int position = positions[i] & 0xFFFF;
+            return new BlockPos(chunkX << 4 | position >> 12, position & 255, chunkZ << 4 | (position >> 8 & 15));
+        }
     }
 
-    @SuppressWarnings("ConstantConditions")
     public static class MessageHandlerUpdateTurret implements IMessageHandler<MessageUpdateTurret, IMessage> {
         @Override
         public IMessage onMessage(MessageUpdateTurret messageIn, MessageContext ctxIn) {
             final MessageUpdateTurret message = messageIn;
-            final MessageContext ctx = ctxIn;
             Minecraft.getMinecraft().addScheduledTask(() -> {
-                TileEntity tileEntity = getWorld(FMLClientHandler.instance().getClient()).getTileEntity(
-                        new BlockPos(message.x, message.y, message.z));
-
-                AbstractDirectedTurret turret = null;
-                if (tileEntity instanceof AbstractDirectedTurret) {
-                    turret = (AbstractDirectedTurret) tileEntity;
-                }
-                if (turret != null) {
-                    turret.setYaw(message.yaw);
-                    turret.setPitch(message.pitch);
+                World world = getWorld(FMLClientHandler.instance().getClient());
+                for (ChunkBatch batch : message.batches) {
+                    for (int i = 0; i < batch.size; i++) {
+                        TileEntity tileEntity = world.getTileEntity(batch.getPos(i));
+                        if (tileEntity instanceof AbstractDirectedTurret) {
+                            AbstractDirectedTurret turret = (AbstractDirectedTurret) tileEntity;
+                            turret.setYaw(RotationSync.dequantize(batch.yaws[i]));
+                            turret.setPitch(RotationSync.dequantize(batch.pitches[i]));
+                            turret.setClientTarget(batch.targets[i], RotationSync.dequantize(message.rotationSpeed));
+                        }
+                    }
                 }
             });
             return null;
@@ -7,6 +7,7 @@ import omtteam.omlib.tileentity.TileEntityBase;
 import omtteam.omlib.tileentity.TileEntityOwnedBlock;
 import omtteam.omlib.util.player.Player;
 import omtteam.openmodularturrets.api.tileentity.ITurretBaseAddonTileEntity;
+import omtteam.openmodularturrets.turret.BaseTopology;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 
 import javax.annotation.Nonnull;
@@ -61,6 +62,12 @@ public class BaseAddon extends TileEntityBase implements ITurretBaseAddonTileEnt
         }
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        BaseTopology.notifyBase(this.getWorld(), this.pos);
+    }
+
     @Override
     public void update() {
         if (this.getWorld().getWorldTime() % 15 == 0 && getBase() == null) {
@@ -9,7 +9,9 @@ import net.minecraftforge.items.ItemStackHandler;
 import net.minecraftforge.items.wrapper.RangedWrapper;
 import omtteam.omlib.tileentity.TileEntityContainer;
 import omtteam.omlib.tileentity.TileEntityOwnedBlock;
+import omtteam.openmodularturrets.api.tileentity.ISlotChangeListener;
 import omtteam.openmodularturrets.api.tileentity.ITurretBaseAddonTileEntity;
+import omtteam.openmodularturrets.turret.BaseTopology;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 import omtteam.openmodularturrets.util.OMTUtil;
 
@@ -18,11 +20,12 @@ import javax.annotation.Nonnull;
 import static omtteam.omlib.util.MathUtil.truncateDoubleToInt;
 import static omtteam.openmodularturrets.turret.TurretHeadUtil.getTurretBaseFacing;
 
-public class Expander extends TileEntityContainer implements ITickable, ITurretBaseAddonTileEntity {
+public class Expander extends TileEntityContainer implements ITickable, ITurretBaseAddonTileEntity, ISlotChangeListener {
     protected IItemHandlerModifiable inventory;
     private boolean powerExpander;
     private EnumFacing orientation;
     private int tier;
+    private int dirtyAmmoSlots;
 
     public Expander() {
         super();
@@ -44,7 +47,7 @@ public class Expander extends TileEntityContainer implements ITickable, ITurretB
             @Override
             protected void onContentsChanged(int slot) {
                 super.onContentsChanged(slot);
-                markDirty();
+                onInventorySlotChanged(slot);
             }
 
             @SuppressWarnings("BooleanMethodIsAlwaysInverted")
@@ -96,6 +99,12 @@ public class Expander extends TileEntityContainer implements ITickable, ITurretB
         this.setOrientation(getTurretBaseFacing(this.getWorld(), this.pos));
     }
 
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        BaseTopology.notifyBase(this.getWorld(), this.pos);
+    }
+
     @Override
     public void update() {
         if (this.getWorld().getWorldTime() % 15 == 0 && dropBlock) {
@@ -111,6 +120,21 @@ public class Expander extends TileEntityContainer implements ITickable, ITurretB
         return TurretHeadUtil.getTurretBase(this.getWorld(), this.pos);
     }
 
+    @Override
+    public void onInventorySlotChanged(int slot) {
+        dirtyAmmoSlots |= 1 << slot;
+        markDirty();
+    }
+
+    /**
+     * Returns the slots changed since the last call and forgets them, used by the AmmoLedger of the attached base.
+     */
+    public int pollDirtyAmmoSlots() {
+        int dirty = dirtyAmmoSlots;
+        dirtyAmmoSlots = 0;
+        return dirty;
+    }
+
     public boolean isPowerExpander() {
         return powerExpander;
     }
@@ -15,7 +15,6 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.ResourceLocation;
-import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.property.IExtendedBlockState;
 import net.minecraftforge.energy.CapabilityEnergy;
@@ -36,7 +35,7 @@ import omtteam.omlib.api.permission.TrustedPlayer;
 import omtteam.omlib.api.render.camo.ICamoSupport;
 import omtteam.omlib.api.tile.IDebugTile;
 import omtteam.omlib.api.tile.IHasTargetingSettings;
-import omtteam.omlib.network.OMLibNetworkingHandler;
+import omtteam.omlib.network.PacketBatcher;
 import omtteam.omlib.network.messages.MessageCamoSettings;
 import omtteam.omlib.power.OMEnergyStorage;
 import omtteam.omlib.tileentity.TileEntityOwnedBlock;
@@ -45,8 +44,8 @@ import omtteam.omlib.util.EnumMachineMode;
 import omtteam.omlib.util.NetworkUtil;
 import omtteam.omlib.util.TargetingSettings;
 import omtteam.omlib.util.camo.CamoSettings;
-import omtteam.omlib.util.world.WorldUtil;
 import omtteam.openmodularturrets.api.network.IBaseController;
+import omtteam.openmodularturrets.api.tileentity.ISlotChangeListener;
 import omtteam.openmodularturrets.api.tileentity.ITurretBase;
 import omtteam.openmodularturrets.handler.OMTNetworkingHandler;
 import omtteam.openmodularturrets.handler.config.OMTConfig;
@@ -55,6 +54,16 @@ import omtteam.openmodularturrets.reference.OMTNames;
 import omtteam.openmodularturrets.reference.Reference;
 import omtteam.openmodularturrets.tileentity.turrets.AbstractDirectedTurret;
 import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
+import omtteam.openmodularturrets.turret.AmmoLedger;
+import omtteam.openmodularturrets.turret.BaseStats;
+import omtteam.openmodularturrets.turret.BaseSyncTracker;
+import omtteam.openmodularturrets.turret.BaseTopology;
+import omtteam.openmodularturrets.turret.LineOfSightCache;
+import omtteam.openmodularturrets.turret.LoadGovernor;
+import omtteam.openmodularturrets.turret.TargetAssignment;
+import omtteam.openmodularturrets.turret.TargetFilterPipeline;
+import omtteam.openmodularturrets.turret.TargetIndex;
+import omtteam.openmodularturrets.turret.TickScheduler;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 import omtteam.openmodularturrets.util.EnumSlotType;
 import omtteam.openmodularturrets.util.OMTUtil;
@@ -69,13 +78,11 @@ import java.util.List;
 import static omtteam.omlib.compatibility.OMLibModCompatibility.ComputerCraftLoaded;
 import static omtteam.omlib.compatibility.OMLibModCompatibility.OpenComputersLoaded;
 import static omtteam.omlib.util.player.PlayerUtil.getPlayerUUID;
-import static omtteam.omlib.util.world.WorldUtil.getTouchingTileEntities;
-import static omtteam.omlib.util.world.WorldUtil.getTouchingTileEntitiesByClass;
 
 @Optional.InterfaceList({
         @Optional.Interface(iface = "dan200.computercraft.api.peripheral.IPeripheral", modid = "computercraft")}
 )
-public class TurretBase extends TileEntityTrustedMachine implements ITurretBase, IPeripheral, ICamoSupport, IDebugTile, IPowerExchangeTile, INetworkTile, ITickable, IHasTargetingSettings {
+public class TurretBase extends TileEntityTrustedMachine implements ITurretBase, IPeripheral, ICamoSupport, IDebugTile, IPowerExchangeTile, INetworkTile, ITickable, IHasTargetingSettings, ISlotChangeListener {
     public boolean shouldConcealTurrets;
     protected CamoSettings camoSettings;
     protected int tier;
@@ -84,7 +91,6 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     private IBlockState camoBlockStateTemp;
     private boolean multiTargeting = false;
     private TargetingSettings targetingSettings;
-    private int ticks;
     private boolean forceFire = false;
     private int kills;
     private int playerKills;
@@ -92,7 +98,25 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     private OMLibNetwork network;
     private final List<EntityPlayerMP> openClients = new ArrayList<>(); // for GUI Stuff
     private final HashMap<EnumSlotType, List<Integer>> slotMap = new HashMap<>();
-    protected HashMap<EnumFacing, Expander> expanderMap = new HashMap<>(); //Todo: use this (helpful for testing) for caching Expanders
+    private final List<EntityLivingBase> targetCandidates = new ArrayList<>();
+    // nearest sections are visited first, so a limited candidate list keeps the closest entities
+    private final TargetIndex.IVisitor targetCandidateCollector = entity -> targetCandidates.add(entity)
+            && targetCandidates.size() < LoadGovernor.getCandidateLimit();
+    private long targetCandidatesTick = -1;
+    private final TargetFilterPipeline targetFilterPipeline = new TargetFilterPipeline();
+    private final LineOfSightCache lineOfSightCache = new LineOfSightCache(this);
+    private final TargetAssignment targetAssignment = new TargetAssignment(this);
+    private final TargetIndex.IWatcher targetWatcher = this::wakeUpTurretsFor;
+    @Nullable
+    private BaseStats stats; // rebuilt lazily after an upgrade or addon slot changed
+    private int wakeCounter;
+    private boolean watchingForTargets;
+    private int watchedRange;
+    private final TickScheduler.Task shortIntervalTask = new TickScheduler.Task(this::runShortIntervalWork);
+    private final TickScheduler.Task longIntervalTask = new TickScheduler.Task(this::runLongIntervalWork);
+    private final BaseTopology topology = new BaseTopology(this);
+    private final AmmoLedger ammoLedger = new AmmoLedger(this);
+    private final BaseSyncTracker syncTracker = new BaseSyncTracker(this);
 
     public TurretBase(int MaxEnergyStorage, int MaxIO, int tier, IBlockState camoState) {
         super();
@@ -104,7 +128,6 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
         this.camoSettings = new CamoSettings();
         setupInventory();
         setupSlotMap();
-        updateExpanders();
     }
 
     public TurretBase() {
@@ -137,19 +160,6 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
         }
     }
 
-    public void updateExpanders() {
-        if (world != null) {
-            for (EnumFacing facing : EnumFacing.VALUES) {
-                TileEntity te = world.getTileEntity(this.getPos().offset(facing));
-                if (te instanceof Expander) {
-                    expanderMap.put(facing, (Expander) te);
-                } else {
-                    expanderMap.put(facing, null);
-                }
-            }
-        }
-    }
-
     @Override
     public IItemHandler getCapabilityInventory(EnumFacing facing) {
         return new RangedWrapper(inventory, 0, 9);
@@ -159,10 +169,9 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     public List<IItemHandler> getAmmoInventories() {
         ArrayList<IItemHandler> list = new ArrayList<>();
         list.add(this.getCapabilityInventory(EnumFacing.DOWN)); // local ammo
-        for (EnumFacing facing : EnumFacing.VALUES) {
-            Expander te = expanderMap.get(facing);
-            if (te != null && !te.isPowerExpander()) {
-                list.add(te.inventory);
+        for (Expander expander : topology.getExpanders()) {
+            if (!expander.isPowerExpander()) {
+                list.add(expander.inventory);
             }
         }
         return list;
@@ -184,12 +193,29 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
             public ItemStack insertItem(int slot, @Nonnull ItemStack stack, boolean simulate) {
                 if (!isItemValidForSlot(slot, stack))
                     return stack;
-                return super.insertItem(slot, stack, simulate);
+                ItemStack remainder = super.insertItem(slot, stack, simulate);
+                if (!simulate && remainder.getCount() != stack.getCount()) {
+                    wakeUpTurrets();
+                }
+                return remainder;
+            }
+
+            @Override
+            protected void onContentsChanged(int slot) {
+                onInventorySlotChanged(slot);
+            }
+
+            // only additions wake up turrets, extractions happen all the time (ammo, redstone reactor)
+            @Override
+            public void setStackInSlot(int slot, @Nonnull ItemStack stack) {
+                super.setStackInSlot(slot, stack);
+                wakeUpTurrets();
             }
         };
     }
 
     private void setupSlotMap() {
+        stats = null;
         List<Integer> ammoList = new ArrayList<>();
         List<Integer> addonList = new ArrayList<>();
         List<Integer> upgradeList = new ArrayList<>();
@@ -272,8 +298,8 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
         }
         this.camoBlockStateTemp = state;
         if (!world.isRemote) {
-            OMLibNetworkingHandler.INSTANCE.sendToAllTracking(new MessageCamoSettings(this),
-                                                              new NetworkRegistry.TargetPoint(this.getWorld().provider.getDimension(), this.getPos().getX(), this.getPos().getY(), this.getPos().getZ(), 80));
+            PacketBatcher.queueToAllTracking(new MessageCamoSettings(this),
+                                             new NetworkRegistry.TargetPoint(this.getWorld().provider.getDimension(), this.getPos().getX(), this.getPos().getY(), this.getPos().getZ(), 80));
             this.setUpdateNBT(true);
         }
     }
@@ -322,12 +348,15 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
         } else {
             this.playerKills = 0;
         }
+        // the inventory may hold other upgrades and addons now (also on the client after a data packet)
+        this.stats = null;
     }
 
     @Override
     public void onLoad() {
         super.onLoad();
         setupSlotMap();
+        topology.markDirty();
         if (camoBlockStateTemp instanceof IExtendedBlockState) {
             this.camoSettings.setCamoBlockState(camoBlockStateTemp);
         } else {
@@ -364,6 +393,11 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
         List<String> debugInfo = new ArrayList<>();
         debugInfo.add("Camo: " + this.camoSettings.getCamoBlockState().getBlock().getRegistryName());
         debugInfo.add("Force Fire: " + this.forceFire + ", UpperMaxRange: " + this.targetingSettings.getMaxRange());
+        debugInfo.addAll(targetFilterPipeline.getDebugInfo());
+        debugInfo.add(lineOfSightCache.getDebugInfo());
+        if (!this.getWorld().isRemote) {
+            debugInfo.addAll(TickScheduler.get(this.getWorld()).getDebugInfo());
+        }
         return debugInfo;
     }
 
@@ -381,6 +415,14 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
 
     @Override
     public void update() {
+        long start = LoadGovernor.startTiming();
+        updateBase();
+        if (!this.getWorld().isRemote) {
+            LoadGovernor.stopTiming(start);
+        }
+    }
+
+    private void updateBase() {
         if (!this.getWorld().isRemote && dropBlock) {
             this.getWorld().destroyBlock(this.pos, true);
             return;
@@ -393,32 +435,45 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
 
         if (!this.getWorld().isRemote) {
             for (EntityPlayerMP player : openClients) {
-                OMTNetworkingHandler.INSTANCE.sendTo(new MessageTurretBase(this), player);
+                syncTracker.sync(player);
             }
         }
 
-        ticks++;
-        if (!this.getWorld().isRemote && ticks % 5 == 0) {
-            //moved by Keridos, added the sync to MessageTurretBase, should sync properly now too.
-            updateControllerSettings();
+        if (!this.getWorld().isRemote && !shortIntervalTask.isScheduled()) {
+            TickScheduler scheduler = TickScheduler.get(this.getWorld());
+            scheduler.schedule(shortIntervalTask, 5);
+            scheduler.schedule(longIntervalTask, 20);
+        }
+    }
 
-            //Concealment
-            this.shouldConcealTurrets = TurretHeadUtil.hasConcealmentAddon(this);
+    private void runShortIntervalWork(long worldTime) {
+        if (this.isInvalid()) {
+            return;
+        }
+        //moved by Keridos, added the sync to MessageTurretBase, should sync properly now too.
+        updateControllerSettings();
 
-            //Extenders
-            this.storage.setCapacity(getMaxEnergyStorageWithExtenders());
+        //Concealment
+        this.shouldConcealTurrets = TurretHeadUtil.hasConcealmentAddon(this);
 
-            if (ticks % 20 == 0) {
-                //ConfigGeneral
-                ticks = 0;
-                updateRedstoneReactor(this);
+        //Extenders
+        this.storage.setCapacity(getMaxEnergyStorageWithExtenders());
 
-                if (this.targetingSettings.getRange() > this.targetingSettings.getMaxRange()) {
-                    this.targetingSettings.setRange(this.targetingSettings.getMaxRange());
-                }
-                this.scrubSyncPlayerList();
-            }
+        checkDormantRange();
+        TickScheduler.get(this.getWorld()).schedule(shortIntervalTask, 5);
+    }
+
+    private void runLongIntervalWork(long worldTime) {
+        if (this.isInvalid()) {
+            return;
+        }
+        updateRedstoneReactor(this);
+
+        if (this.targetingSettings.getRange() > this.targetingSettings.getMaxRange()) {
+            this.targetingSettings.setRange(this.targetingSettings.getMaxRange());
         }
+        this.scrubSyncPlayerList();
+        TickScheduler.get(this.getWorld()).schedule(longIntervalTask, 20);
     }
 
     public NBTTagCompound writeMemoryCardNBT() {
@@ -446,17 +501,24 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
 
     public void updateMaxRange() {
         int maxRange = 0;
-        List<TileEntity> tileEntities = WorldUtil.getTouchingTileEntities(getWorld(), getPos());
-        for (TileEntity te : tileEntities) {
-            if (te instanceof TurretHead) {
-                maxRange = Math.max(((TurretHead) te).getTurretBaseRange() + TurretHeadUtil.getRangeUpgrades(this, (TurretHead) te), maxRange);
-            }
+        for (TurretHead turretHead : topology.getHeads()) {
+            maxRange = Math.max(turretHead.getTurretBaseRange() + TurretHeadUtil.getRangeUpgrades(this, turretHead), maxRange);
         }
         this.targetingSettings.setMaxRange(maxRange);
     }
 
+    @Override
+    public void onInventorySlotChanged(int slot) {
+        if (slot >= 9) {
+            stats = null;
+        } else {
+            ammoLedger.markDirty(slot);
+        }
+    }
+
     public void turretResetCaches() {
-        for (TurretHead turretHead : getTouchingTileEntitiesByClass(this.getWorld(), this.getPos(), TurretHead.class)) {
+        stats = null;
+        for (TurretHead turretHead : topology.getHeads()) {
             turretHead.triggerResetCaches();
         }
     }
@@ -501,6 +563,7 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     @Override
     public void setAttacksMobs(boolean attacksMobs) {
         this.targetingSettings.setTargetMobs(attacksMobs);
+        wakeUpTurrets();
     }
 
     @Override
@@ -511,6 +574,7 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     @Override
     public void setAttacksNeutrals(boolean attacksNeutrals) {
         this.targetingSettings.setTargetPassive(attacksNeutrals);
+        wakeUpTurrets();
     }
 
     @Override
@@ -521,6 +585,7 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     @Override
     public void setAttacksPlayers(boolean attacksPlayers) {
         this.targetingSettings.setTargetPlayers(attacksPlayers);
+        wakeUpTurrets();
     }
 
     @Override
@@ -531,6 +596,7 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     @Override
     public void setMultiTargeting(boolean multiTargeting) {
         this.multiTargeting = multiTargeting;
+        wakeUpTurrets();
     }
 
     @Override
@@ -588,6 +654,7 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
     public void setRange(int range) {
         this.updateMaxRange();
         this.targetingSettings.setRange(range);
+        wakeUpTurrets();
     }
 
     @Override
@@ -606,8 +673,120 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
         return controller;
     }
 
-    public HashMap<EnumFacing, Expander> getExpanderMap() {
-        return expanderMap;
+    public TargetFilterPipeline getTargetFilterPipeline() {
+        return targetFilterPipeline;
+    }
+
+    public LineOfSightCache getLineOfSightCache() {
+        return lineOfSightCache;
+    }
+
+    /**
+     * @return the upgrade and addon snapshot of this base, the same instance is returned until a relevant slot changes
+     */
+    public BaseStats getStats() {
+        if (stats == null) {
+            stats = BaseStats.of(this);
+        }
+        return stats;
+    }
+
+    public TargetAssignment getTargetAssignment() {
+        return targetAssignment;
+    }
+
+    public int getWakeCounter() {
+        return wakeCounter;
+    }
+
+    /**
+     * Wakes up all dormant turret heads of this base, they search for targets on their next update.
+     */
+    public void wakeUpTurrets() {
+        wakeCounter++;
+        stopWatchingForTargets();
+    }
+
+    /**
+     * Lets the target index wake up the turrets once a valid target enters the range of this base.
+     */
+    public void watchForTargets() {
+        if (!watchingForTargets && this.getWorld() != null && !this.getWorld().isRemote) {
+            watchedRange = targetingSettings.getRange() + 1;
+            TargetIndex.get(this.getWorld()).watch(this.pos, watchedRange, targetWatcher);
+            watchingForTargets = true;
+        }
+    }
+
+    /**
+     * Wakes up the turrets if one of them would target the entity (owners, trusted players, pets etc. do not count).
+     */
+    private void wakeUpTurretsFor(EntityLivingBase entity) {
+        for (TurretHead turretHead : topology.getHeads()) {
+            if (targetFilterPipeline.isValidTarget(turretHead, entity)) {
+                wakeUpTurrets();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The target index only tells about entities changing sections, entities moving inside a watched section
+     * (f.ex. walking into range or out of cover) are caught by checking the range while the turrets sleep.
+     */
+    private void checkDormantRange() {
+        if (!watchingForTargets) {
+            return;
+        }
+        TargetIndex.get(this.getWorld()).visitInRange(this.pos, targetingSettings.getRange(), entity -> {
+            wakeUpTurretsFor(entity);
+            return watchingForTargets;
+        });
+    }
+
+    private void stopWatchingForTargets() {
+        if (watchingForTargets) {
+            TargetIndex.get(this.getWorld()).unwatch(this.pos, watchedRange, targetWatcher);
+            watchingForTargets = false;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        stopWatchingForTargets();
+        shortIntervalTask.cancel();
+        longIntervalTask.cancel();
+    }
+
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        stopWatchingForTargets();
+        shortIntervalTask.cancel();
+        longIntervalTask.cancel();
+    }
+
+    @Override
+    protected void refreshActive(EnumMachineMode mode) {
+        boolean wasActive = this.active;
+        super.refreshActive(mode);
+        // isActive() refreshes on every call, only an actual change may wake up the turrets
+        if (this.active != wasActive) {
+            wakeUpTurrets();
+        }
+    }
+
+    public BaseTopology getTopology() {
+        return topology;
+    }
+
+    public AmmoLedger getAmmoLedger() {
+        return ammoLedger;
+    }
+
+    public BaseSyncTracker getSyncTracker() {
+        return syncTracker;
     }
 
     public HashMap<EnumSlotType, List<Integer>> getSlotMap() {
@@ -643,6 +822,7 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
 
     public void setTargetingSettings(TargetingSettings targetingSettings) {
         this.targetingSettings = targetingSettings;
+        wakeUpTurrets();
     }
 
     // API Functions. TODO: Add more?
@@ -667,27 +847,42 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
      * @return List of EntityLivingBase
      */
     public List<EntityLivingBase> getEntitiesWithinRange() {
-        AxisAlignedBB axis = new AxisAlignedBB(pos.getX() - targetingSettings.getRange() - 1, pos.getY() - targetingSettings.getRange() - 1,
-                                               pos.getZ() - targetingSettings.getRange() - 1, pos.getX() + targetingSettings.getRange() + 1,
-                                               pos.getY() + targetingSettings.getRange() + 1, pos.getZ() + targetingSettings.getRange() + 1);
+        List<EntityLivingBase> list = new ArrayList<>();
+        TargetIndex.get(this.getWorld()).visitInRange(this.pos, targetingSettings.getRange(), list::add);
+        return list;
+    }
 
-        return this.getWorld().getEntitiesWithinAABB(EntityLivingBase.class, axis);
+    /**
+     * List of all entities that any turret head attached to this base could target.
+     * The list is gathered once per world tick with a box covering the range of every head,
+     * each head has to filter it by its own range.
+     *
+     * @return List of EntityLivingBase
+     */
+    public List<EntityLivingBase> getTargetCandidates() {
+        long worldTime = this.getWorld().getTotalWorldTime();
+        if (targetCandidatesTick != worldTime) {
+            targetCandidates.clear();
+            // heads sit one block off the base
+            TargetIndex.get(this.getWorld()).visitInRange(this.pos, targetingSettings.getRange() + 1, targetCandidateCollector);
+            targetCandidatesTick = worldTime;
+        }
+        return targetCandidates;
     }
 
     @Override
     public void setAllTurretsYawPitch(float yaw, float pitch) {
-        List<TileEntity> tileEntities = getTouchingTileEntities(this.getWorld(), this.pos);
-        for (TileEntity te : tileEntities) {
-            if (te instanceof AbstractDirectedTurret) {
-                ((AbstractDirectedTurret) te).setPitch(pitch);
-                ((AbstractDirectedTurret) te).setYaw(yaw);
+        for (TurretHead turretHead : topology.getHeads()) {
+            if (turretHead instanceof AbstractDirectedTurret) {
+                ((AbstractDirectedTurret) turretHead).setPitch(pitch);
+                ((AbstractDirectedTurret) turretHead).setYaw(yaw);
             }
         }
     }
 
     @Override
     public boolean setTurretYawPitch(EnumFacing facing, float yaw, float pitch) {
-        TileEntity turretHead = this.getWorld().getTileEntity(this.pos.offset(facing));
+        TurretHead turretHead = topology.getHead(facing);
         if (turretHead instanceof AbstractDirectedTurret) {
             ((AbstractDirectedTurret) turretHead).setPitch(pitch);
             ((AbstractDirectedTurret) turretHead).setYaw(yaw);
@@ -698,19 +893,16 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
 
     @Override
     public void setAllTurretsForceFire(boolean state) {
-        List<TileEntity> tileEntities = getTouchingTileEntities(this.getWorld(), this.pos);
-        for (TileEntity te : tileEntities) {
-            if (te instanceof TurretHead) {
-                ((TurretHead) te).setAutoFire(state);
-            }
+        for (TurretHead turretHead : topology.getHeads()) {
+            turretHead.setAutoFire(state);
         }
     }
 
     @Override
     public boolean setTurretForceFire(EnumFacing facing, boolean state) {
-        TileEntity turretHead = this.getWorld().getTileEntity(this.pos.offset(facing));
-        if (turretHead instanceof TurretHead) {
-            ((TurretHead) turretHead).setAutoFire(state);
+        TurretHead turretHead = topology.getHead(facing);
+        if (turretHead != null) {
+            turretHead.setAutoFire(state);
             return true;
         }
         return false;
@@ -718,17 +910,16 @@ public class TurretBase extends TileEntityTrustedMachine implements ITurretBase,
 
     @Override
     public boolean forceShootTurret(EnumFacing facing) {
-        TileEntity turretHead = this.getWorld().getTileEntity(this.pos.offset(facing));
+        TurretHead turretHead = topology.getHead(facing);
         return (turretHead instanceof AbstractDirectedTurret && ((AbstractDirectedTurret) turretHead).forceShot());
     }
 
     @Override
     public int forceShootAllTurrets() {
-        List<TileEntity> tileEntities = getTouchingTileEntities(this.getWorld(), this.pos);
         int successes = 0;
-        for (TileEntity te : tileEntities) {
-            if (te instanceof AbstractDirectedTurret) {
-                successes += ((AbstractDirectedTurret) te).forceShot() ? 1 : 0;
+        for (TurretHead turretHead : topology.getHeads()) {
+            if (turretHead instanceof AbstractDirectedTurret) {
+                successes += ((AbstractDirectedTurret) turretHead).forceShot() ? 1 : 0;
             }
         }
         return successes;
@@ -2,20 +2,21 @@ package omtteam.openmodularturrets.tileentity.turrets;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.play.server.SPacketUpdateTileEntity;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.MathHelper;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
-import omtteam.omlib.util.NetworkUtil;
 import omtteam.omlib.util.world.Pos;
 import omtteam.openmodularturrets.blocks.turretheads.BlockAbstractTurretHead;
-import omtteam.openmodularturrets.handler.OMTNetworkingHandler;
 import omtteam.openmodularturrets.handler.config.OMTConfig;
-import omtteam.openmodularturrets.network.messages.MessageUpdateTurret;
+import omtteam.openmodularturrets.turret.LoadGovernor;
+import omtteam.openmodularturrets.turret.RotationSync;
+import omtteam.openmodularturrets.turret.TargetTracker;
+import omtteam.openmodularturrets.turret.TickScheduler;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 
 import javax.annotation.Nullable;
@@ -26,6 +27,15 @@ public abstract class AbstractDirectedTurret extends TurretHead {
     protected float maxYaw = 360;
     protected float minPitch = 0;
     protected float minYaw = 0;
+    private final TickScheduler.Task cooldownTask = new TickScheduler.Task(worldTime -> {});
+    private short sentYaw, sentPitch;
+    private boolean rotationQueued;
+    private boolean aimedAtTarget;
+    private int sentTargetId = -1;
+    // client side dead reckoning
+    private float prevYaw, prevPitch;
+    private int clientTargetId = -1;
+    private float clientRotationSpeed;
 
     public AbstractDirectedTurret(int turretTier) {
         super(turretTier);
@@ -68,6 +78,8 @@ public abstract class AbstractDirectedTurret extends TurretHead {
         this.minPitch = nbtTagCompound.getFloat("minPitch");
         this.maxYaw = nbtTagCompound.getFloat("maxYaw");
         this.minYaw = nbtTagCompound.getFloat("minYaw");
+        this.sentYaw = RotationSync.quantize(yaw);
+        this.sentPitch = RotationSync.quantize(pitch);
     }
 
     public float getPitch() {
@@ -118,8 +130,116 @@ public abstract class AbstractDirectedTurret extends TurretHead {
         this.minYaw = minYaw;
     }
 
+    /**
+     * Queues this head with the RotationSync if its tracked target changed, or if its rotation moved past the threshold
+     * since it was last sent. While clients track the same target they aim at it on their own (see updateDeadReckoning()),
+     * the server turning towards it is exactly what they predict, so the rotation is not compared then.
+     */
+    private void checkRotationSync() {
+        if (rotationQueued) {
+            return;
+        }
+        int trackedTargetId = getTrackedTargetId();
+        double threshold = OMTConfig.TURRETS.rotationSyncThreshold;
+        if (trackedTargetId != sentTargetId
+                || (trackedTargetId < 0 && (RotationSync.exceedsThreshold(RotationSync.quantize(yaw), sentYaw, threshold)
+                || RotationSync.exceedsThreshold(RotationSync.quantize(pitch), sentPitch, threshold)))) {
+            rotationQueued = true;
+            RotationSync.get(this.getWorld()).queue(this);
+        }
+    }
+
+    /**
+     * @return the entity id of the target this head keeps aiming at, -1 if there is none
+     */
+    private int getTrackedTargetId() {
+        return aimedAtTarget && target != null && !target.isDead ? target.getEntityId() : -1;
+    }
+
+    /**
+     * Called by the RotationSync when it sends this head, the current rotation and target become the last sent ones.
+     */
+    public void markRotationSent() {
+        this.sentYaw = RotationSync.quantize(yaw);
+        this.sentPitch = RotationSync.quantize(pitch);
+        this.sentTargetId = getTrackedTargetId();
+        this.rotationQueued = false;
+    }
+
+    public int getSentTargetId() {
+        return sentTargetId;
+    }
+
+    /**
+     * Sets the target the client aims at between rotation updates.
+     *
+     * @param targetId      the entity id of the target, -1 to stop aiming
+     * @param rotationSpeed how many degrees the head may turn per tick
+     */
+    public void setClientTarget(int targetId, float rotationSpeed) {
+        this.clientTargetId = targetId;
+        this.clientRotationSpeed = rotationSpeed;
+    }
+
+    @SideOnly(Side.CLIENT)
+    private void updateDeadReckoning() {
+        if (clientTargetId < 0) {
+            return;
+        }
+        Entity entity = this.getWorld().getEntityByID(clientTargetId);
+        if (entity == null) {
+            // not tracked by this client (yet), keep the last snapshot until the entity shows up or the server corrects it
+            return;
+        }
+        if (entity.isDead) {
+            clientTargetId = -1;
+            return;
+        }
+        yaw = approach(yaw, TurretHeadUtil.getAimYaw(entity, new Pos(this.pos)), clientRotationSpeed);
+        pitch = approach(pitch, TurretHeadUtil.getAimPitch(entity, new Pos(this.pos)), clientRotationSpeed);
+    }
+
+    private static float approach(float current, float target, float maxStep) {
+        float step = MathHelper.clamp(MathHelper.wrapDegrees(target - current), -maxStep, maxStep);
+        float result = (current + step) % 360F;
+        return result < 0 ? result + 360F : result;
+    }
+
+    /**
+     * @return the yaw interpolated between the last two client ticks
+     */
+    public float getRenderYaw(float partialTicks) {
+        return prevYaw + MathHelper.wrapDegrees(yaw - prevYaw) * partialTicks;
+    }
+
+    public float getRenderPitch(float partialTicks) {
+        return prevPitch + MathHelper.wrapDegrees(pitch - prevPitch) * partialTicks;
+    }
+
+    public short getSentYaw() {
+        return sentYaw;
+    }
+
+    public short getSentPitch() {
+        return sentPitch;
+    }
+
     protected abstract void doTargetedShot(EntityLivingBase target, ItemStack ammo);
 
+    /**
+     * Registers the end of the cooldown after a shot with the scheduler, the turret stays on cooldown while it is pending.
+     */
+    protected void startCooldown() {
+        if (!this.getWorld().isRemote && cachedCooldownTicks >= 1D) {
+            TickScheduler.get(this.getWorld()).schedule(cooldownTask, (long) Math.ceil(cachedCooldownTicks));
+        }
+    }
+
+    @Override
+    public boolean isOnCooldown() {
+        return cooldownTask.isScheduled();
+    }
+
     public abstract boolean forceShot();
 
     protected void updateRotationAnimation() {
@@ -149,7 +269,19 @@ public abstract class AbstractDirectedTurret extends TurretHead {
 
     @Override
     public void update() {
+        long start = LoadGovernor.startTiming();
+        updateTurret();
+        if (!this.getWorld().isRemote) {
+            LoadGovernor.stopTiming(start);
+        }
+    }
+
+    private void updateTurret() {
         super.update();
+        if (this.getWorld().isRemote) {
+            prevYaw = yaw;
+            prevPitch = pitch;
+        }
 
         //Is the turret head block still there?
         if (!(this.getWorld().getBlockState(this.getPos()).getBlock() instanceof BlockAbstractTurretHead)) {
@@ -165,20 +297,17 @@ public abstract class AbstractDirectedTurret extends TurretHead {
         //Is turret base active?
         if (!base.isActive()) {
             this.target = null;
+            this.aimedAtTarget = false;
             return;
         }
         //Is this the client?
         if (this.getWorld().isRemote) {
             updateRotationAnimation();
+            updateDeadReckoning();
             return;
         }
 
-        if (this.ticks % 5 == 0) {
-
-            OMTNetworkingHandler.INSTANCE.sendToAllTracking(
-                    new MessageUpdateTurret(this),
-                    NetworkUtil.getTargetPointFromBlockPos(this.getWorld().provider.getDimension(), pos, 100));
-        }
+        checkRotationSync();
         this.ticks++;
 
         //Real time tick updates
@@ -195,25 +324,19 @@ public abstract class AbstractDirectedTurret extends TurretHead {
             TurretHeadUtil.warnPlayers(base, base.getWorld(), this.pos, getTurretBaseRange());
         }
 
-        // Update target tracking (Player entity not setting motion data when moving via movement keys)
-        if (target instanceof EntityPlayerMP) {
-            targetSpeedX = target.posX - targetLastX;
-            targetSpeedY = target.posY - targetLastY;
-            targetSpeedZ = target.posZ - targetLastZ;
-            targetLastX = target.posX;
-            targetLastY = target.posY;
-            targetLastZ = target.posZ;
+        // Keep the target tracked (Player entity not setting motion data when moving via movement keys)
+        if (target != null) {
+            TargetTracker.get(this.getWorld()).getTrack(target);
         }
 
         //turret tick rate;
-        if (target == null && targetingTicks < OMTConfig.TURRETS.turretTargetSearchTicks) {
-            targetingTicks++;
-        } else {
+        if (isDueForTargetSearch()) {
             //Validate current target, get a new one if necessary
             targetingChecks();
 
             //Aim at target
-            if (target != null && isTargetInYawPitch(target)) {
+            aimedAtTarget = target != null && isTargetInYawPitch(target);
+            if (aimedAtTarget && LoadGovernor.isDue(this.getWorld().getTotalWorldTime(), this.pos.hashCode())) {
                 this.yaw = TurretHeadUtil.getAimYaw(this.target, new Pos(this.pos));
                 this.pitch = TurretHeadUtil.getAimPitch(this.target, new Pos(this.pos));
             }
@@ -241,9 +364,11 @@ public abstract class AbstractDirectedTurret extends TurretHead {
             } else if (this.autoFire) {
                 forceShot();
             }
+            finishVolley();
 
             //If we made it this far, reset ticks to zero
             this.ticks = 0;
+            startCooldown();
         }
     }
 }
@@ -2,7 +2,6 @@ package omtteam.openmodularturrets.tileentity.turrets;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.SoundCategory;
@@ -14,6 +13,7 @@ import omtteam.openmodularturrets.compatibility.ModCompatibility;
 import omtteam.openmodularturrets.entity.projectiles.TurretProjectile;
 import omtteam.openmodularturrets.handler.config.OMTConfig;
 import omtteam.openmodularturrets.init.ModSounds;
+import omtteam.openmodularturrets.turret.TargetTracker;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 import valkyrienwarfare.api.IPhysicsEntity;
 import valkyrienwarfare.api.IPhysicsEntityManager;
@@ -37,12 +37,8 @@ public abstract class ProjectileTurret extends AbstractDirectedTurret {
      */
     @Override
     protected void doTargetedShot(EntityLivingBase target, ItemStack ammo) {
-        // Update target tracking (Player entity not setting motion data when moving via movement keys)
-        double speedX = target instanceof EntityPlayerMP ? targetSpeedX : target.posX - target.prevPosX;
-        double speedY = target instanceof EntityPlayerMP ? targetSpeedY : target.posY - target.prevPosY;
-        double speedZ = target instanceof EntityPlayerMP ? targetSpeedZ : target.posZ - target.prevPosZ;
+        TargetTracker.Track track = TargetTracker.get(this.getWorld()).getTrack(target);
 
-        // Calculate speed from displacement from last tick (Or use tracking data if target is player)
         double d0 = target.posX - (this.pos.getX() + 0.5);
         double d1 = target.posY + (double) target.height * 0.5F - (this.pos.getY() + 0.5);
         double d2 = target.posZ - (this.pos.getZ() + 0.5);
@@ -55,22 +51,30 @@ public abstract class ProjectileTurret extends AbstractDirectedTurret {
                 d0 = targetPosInShip.x - (this.pos.getX() + 0.5);
                 d1 = targetPosInShip.y + (double) target.height * 0.5F - (this.pos.getY() + 0.5);
                 d2 = targetPosInShip.z - (this.pos.getZ() + 0.5);
-                Vec3d targetSpeed = new Vec3d(speedX, speedY, speedZ);
-                Vec3d targetSpeedInShip = physicsEntity.rotateVector(targetSpeed, TransformType.GLOBAL_TO_SUBSPACE);
-                speedX = targetSpeedInShip.x;
-                speedY = targetSpeedInShip.y;
-                speedZ = targetSpeedInShip.z;
             }
         }
 
         double dist = MathHelper.sqrt(d0 * d0 + d1 * d1 + d2 * d2);
         double inaccuracy = (this.getActualTurretAccuracyDeviation()) / 20D;
 
-        // Adjust new firing coordinate according to target speed
+        // Lead the target by its tracked velocity and acceleration over the projectile flight time
         double time = dist / (this.getProjectileGravity() == 0.00F ? 3.0 : 1.6);
-        double adjustedX = d0 + speedX * time;
-        double adjustedY = d1 + speedY * time;
-        double adjustedZ = d2 + speedZ * time;
+        double leadX = track.getLeadX(time);
+        double leadY = track.getLeadY(time);
+        double leadZ = track.getLeadZ(time);
+        if (ModCompatibility.ValkyrienWarfareLoaded) {
+            IPhysicsEntity physicsEntity = IPhysicsEntityManager.INSTANCE.getPhysicsEntityFromShipSpace(getWorld(),
+                                                                                                        getPos());
+            if (physicsEntity != null) {
+                Vec3d leadInShip = physicsEntity.rotateVector(new Vec3d(leadX, leadY, leadZ), TransformType.GLOBAL_TO_SUBSPACE);
+                leadX = leadInShip.x;
+                leadY = leadInShip.y;
+                leadZ = leadInShip.z;
+            }
+        }
+        double adjustedX = d0 + leadX;
+        double adjustedY = d1 + leadY;
+        double adjustedZ = d2 + leadZ;
         if (ModCompatibility.ValkyrienWarfareLoaded) {
             IPhysicsEntity physicsEntity = IPhysicsEntityManager.INSTANCE.getPhysicsEntityFromShipSpace(getWorld(),
                                                                                                         getPos());
@@ -127,11 +131,15 @@ public abstract class ProjectileTurret extends AbstractDirectedTurret {
                 projectile.prevRotationYaw = projectile.rotationYaw;
                 projectile.prevRotationPitch = projectile.rotationPitch;
             }
-            this.getWorld().spawnEntity(projectile);
+            if (this.getWorld().spawnEntity(projectile)) {
+                onRoundFired();
+            }
         }
+        finishVolley();
         this.getWorld().playSound(null, this.pos, this.getLaunchSoundEffect(), SoundCategory.BLOCKS,
                                   (float) OMTConfig.TURRETS.turretSoundVolume, new Random().nextFloat() + 0.5F);
         ticks = 0;
+        startCooldown();
 
         return true;
     }
@@ -177,7 +185,9 @@ public abstract class ProjectileTurret extends AbstractDirectedTurret {
                                       (float) OMTConfig.TURRETS.turretSoundVolume, RandomUtil.random.nextFloat() + 0.5F);
 
             // Spawn entity
-            this.getWorld().spawnEntity(projectile);
+            if (this.getWorld().spawnEntity(projectile)) {
+                onRoundFired();
+            }
         }
     }
 }
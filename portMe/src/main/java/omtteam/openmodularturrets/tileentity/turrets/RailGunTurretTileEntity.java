@@ -8,7 +8,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import omtteam.omlib.api.render.ColorOM;
-import omtteam.omlib.network.OMLibNetworkingHandler;
+import omtteam.omlib.network.PacketBatcher;
 import omtteam.omlib.network.messages.render.MessageRenderRay;
 import omtteam.omlib.util.EntityUtil;
 import omtteam.openmodularturrets.blocks.turretheads.BlockAbstractTurretHead;
@@ -54,7 +54,7 @@ public class RailGunTurretTileEntity extends RayTracingTurret {
 
     @Override
     protected void renderRay(Vec3d start, Vec3d end) {
-        OMLibNetworkingHandler.INSTANCE.sendToAllAround(
+        PacketBatcher.queueToAllAround(
                 new MessageRenderRay(start, end, color, 3, true),
                 new NetworkRegistry.TargetPoint(this.getWorld().provider.getDimension(),
                                                 start.x, start.y, start.z, 120));
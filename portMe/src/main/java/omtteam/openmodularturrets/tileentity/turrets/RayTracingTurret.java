@@ -84,6 +84,7 @@ public abstract class RayTracingTurret extends AbstractDirectedTurret {
 
         // Create one ray per scatter-shot upgrade
         for (int i = 0; i <= this.cachedScattershot; i++) {
+            onRoundFired();
             double xDev, yDev, zDev;
             boolean hit = false;
             // vector points at the target, baseVector is the origin of the raytrace
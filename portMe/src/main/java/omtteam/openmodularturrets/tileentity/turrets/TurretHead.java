@@ -9,7 +9,6 @@ import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.SoundEvent;
-import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import omtteam.omlib.tileentity.TileEntityBase;
@@ -21,14 +20,18 @@ import omtteam.openmodularturrets.blocks.turretheads.BlockAbstractTurretHead;
 import omtteam.openmodularturrets.handler.config.OMTConfig;
 import omtteam.openmodularturrets.init.ModSounds;
 import omtteam.openmodularturrets.tileentity.TurretBase;
+import omtteam.openmodularturrets.turret.AmmoLedger;
+import omtteam.openmodularturrets.turret.BaseStats;
+import omtteam.openmodularturrets.turret.BaseTopology;
 import omtteam.openmodularturrets.turret.EnumTargetingPriority;
+import omtteam.openmodularturrets.turret.LoadGovernor;
+import omtteam.openmodularturrets.turret.TargetScorer;
 import omtteam.openmodularturrets.turret.TurretHeadUtil;
 import omtteam.openmodularturrets.turret.TurretTargetingUtils;
 import omtteam.openmodularturrets.turret.TurretType;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.List;
 import java.util.Random;
 
 import static omtteam.openmodularturrets.blocks.turretheads.BlockAbstractTurretHead.CONCEALED;
@@ -44,18 +47,20 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
     protected boolean playedDeploy = false;
     protected boolean autoFire = false;
     protected int ticksWithoutTarget;
-    protected double targetLastX = 0;
-    protected double targetLastY = 0;
-    protected double targetLastZ = 0;
-    protected double targetSpeedX = 0;
-    protected double targetSpeedY = 0;
-    protected double targetSpeedZ = 0;
     protected double cachedAccuracy = 0D;
     protected int cachedScattershot = 0;
+    protected double cachedCooldownTicks = 0D;
     private boolean resetCaches;
+    private BaseStats cachedStats; // the caches above were computed from this snapshot
+    protected final AmmoLedger.Reservation ammoReservation = new AmmoLedger.Reservation();
+    protected int roundsFired;
     protected ItemStack ammo;
     private EnumFacing turretBase;
     Integer[] priorities = {};
+    private TargetScorer targetScorer;
+    private boolean dormant;
+    private int dormantWakeCounter;
+    private int dormantTicks;
 
     public TurretHead(int turretTier) {
         this.turretTier = turretTier;
@@ -109,6 +114,9 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
         } else {
             this.priorities = this.getDefaultPriorities();
         }
+        this.targetScorer = null;
+        this.cachedStats = null;
+        this.resetCaches = true;
     }
 
     @Nonnull
@@ -179,11 +187,11 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
     protected EntityLivingBase getTarget() {
         TurretTargetingUtils selector = new TurretTargetingUtils(this);
         if (!this.getWorld().isRemote && base != null) {
-            AxisAlignedBB axis = new AxisAlignedBB(pos.getX() - base.getRange() - 1, pos.getY() - base.getRange() - 1,
-                                                   pos.getZ() - base.getRange() - 1, pos.getX() + base.getRange() + 1,
-                                                   pos.getY() + base.getRange() + 1, pos.getZ() + base.getRange() + 1);
-            List<EntityLivingBase> targets = this.getWorld().getEntitiesWithinAABB(EntityLivingBase.class, axis);
-            return selector.getBestEntity(targets);
+            if (base.isMultiTargeting()) {
+                return base.getTargetAssignment().getAssignedTarget(this);
+            }
+            // candidates are shared between all heads of the base, range is checked per head in validTarget
+            return selector.getBestEntity(base.getTargetCandidates());
         }
         return null;
     }
@@ -199,6 +207,19 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
         return this.getDefaultPriorities();
     }
 
+    public TargetScorer getTargetScorer() {
+        boolean legacy = OMTConfig.TURRETS.legacyTargetScoring;
+        if (targetScorer == null || targetScorer.isLegacy() != legacy) {
+            Integer[] priorities = getPriorities();
+            int[] weights = new int[priorities.length];
+            for (int i = 0; i < priorities.length; i++) {
+                weights[i] = priorities[i];
+            }
+            targetScorer = EnumTargetingPriority.compile(weights, legacy);
+        }
+        return targetScorer;
+    }
+
     protected TurretBase getBaseFromWorld() {
         return TurretHeadUtil.getTurretBase(this.getWorld(), this.pos);
     }
@@ -209,7 +230,7 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
 
     // If the turret is still on cooldown (from previous shot/activation)
     public boolean isOnCooldown() {
-        return (ticks < (this.getTurretBaseFireRate() / (1 + TurretHeadUtil.getFireRateUpgrades(base, this))));
+        return ticks < cachedCooldownTicks;
     }
 
     public boolean getAutoFire() {
@@ -291,24 +312,46 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
                 base, this)) * (1 + TurretHeadUtil.getScattershotUpgrades(base)));
     }
 
+    /**
+     * Reserves the ammo for a volley of one round per scattershot upgrade plus one.
+     * Nothing is removed until finishVolley() commits the rounds that were actually fired.
+     *
+     * @return the ammo template if ammo was reserved (or the volley already has a reservation), else ItemStack.EMPTY
+     */
     protected ItemStack getAmmoStack() {
-        ItemStack ammo = ItemStack.EMPTY;
-        if (this.requiresAmmo() && OMTConfig.TURRETS.doTurretsNeedAmmo) {
-            if (this.requiresSpecificAmmo()) {
-                ItemStack ammoNeeded = this.getAmmo();
-                if (ammoNeeded != null) {
-                    ammoNeeded.setCount(TurretHeadUtil.getScattershotUpgrades(base) + 1);
-                }
-                ammo = TurretHeadUtil.deductItemStackFromInventories(this.getAmmo(), base, this);
-            } else { // for Disposable
-                ItemStack ammoNeeded = this.getAmmo();
-                if (ammoNeeded != null) {
-                    ammoNeeded.setCount(TurretHeadUtil.getScattershotUpgrades(base) + 1);
-                }
-                ammo = TurretHeadUtil.deductItemStackFromInventories(this.getAmmo(), base, this);
+        if (!this.requiresAmmo() || !OMTConfig.TURRETS.doTurretsNeedAmmo || this.getAmmo() == null) {
+            return ItemStack.EMPTY;
+        }
+        if (ammoReservation.isActive()) {
+            return this.getAmmo();
+        }
+        roundsFired = 0;
+        return TurretHeadUtil.reserveAmmo(base, this, ammoReservation, TurretHeadUtil.getScattershotUpgrades(base) + 1)
+                ? this.getAmmo() : ItemStack.EMPTY;
+    }
+
+    protected void onRoundFired() {
+        roundsFired++;
+    }
+
+    /**
+     * Commits the reserved ammo for the rounds fired since getAmmoStack(), or rolls it back if nothing was fired.
+     */
+    protected void finishVolley() {
+        if (ammoReservation.isActive() && base != null) {
+            if (roundsFired > 0) {
+                base.getAmmoLedger().commit(ammoReservation, roundsFired);
+            } else {
+                base.getAmmoLedger().rollback(ammoReservation);
             }
         }
-        return ammo;
+        roundsFired = 0;
+    }
+
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        BaseTopology.notifyBase(this.getWorld(), this.pos);
     }
 
     public void update() {
@@ -316,8 +359,13 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
         if (this.base == null) {
             this.base = getBaseFromWorld();
         }
-        if (this.resetCaches) {
+        if (this.base != null && this.base.getStats() != this.cachedStats) {
+            this.cachedStats = this.base.getStats();
+            this.resetCaches = true;
+        }
+        if (this.resetCaches && this.base != null) {
             this.cachedScattershot = TurretHeadUtil.getScattershotUpgrades(this.getBase());
+            this.cachedCooldownTicks = this.getTurretBaseFireRate() / (1 + TurretHeadUtil.getFireRateUpgrades(base, this));
             this.getActualTurretAccuracyDeviation();
             this.resetCaches = false;
         }
@@ -334,8 +382,7 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
             TurretHeadUtil.updateSolarPanelAddon(base);
 
             //turret tick rate;
-            if (target == null && targetingTicks < OMTConfig.TURRETS.turretTargetSearchTicks) {
-                targetingTicks++;
+            if (!isDueForTargetSearch()) {
                 return false;
             }
             targetingTicks = 0;
@@ -362,7 +409,7 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
             }
 
             // Can the turret still see the target? (It's moving)
-            if (target != null) {
+            if (target != null && LoadGovernor.isDue(this.getWorld().getTotalWorldTime(), this.pos.hashCode())) {
                 if (!TurretTargetingUtils.canSeeTargetFromPos(this, target)) {
                     target = null;
                     return false;
@@ -384,10 +431,50 @@ public abstract class TurretHead extends TileEntityBase implements ITurretHead,
     }
 
     protected void targetingChecks() {
+        if (base != null && base.isMultiTargeting()) {
+            base.getTargetAssignment().update();
+        }
         // if no target or target has died, acquire a new target.
-        if (this.target == null || this.target.isDead || this.getWorld().getEntityByID(this.target.getEntityId()) == null || this.target.getHealth() <= 0.0F || !TurretTargetingUtils.canSeeTargetFromPos(this, target)) {
+        if (this.target == null || this.target.isDead || this.getWorld().getEntityByID(this.target.getEntityId()) == null || this.target.getHealth() <= 0.0F
+                || (LoadGovernor.isDue(this.getWorld().getTotalWorldTime(), this.pos.hashCode()) && !TurretTargetingUtils.canSeeTargetFromPos(this, target))) {
             this.target = getTarget();
         }
+        if (this.target == null && base != null) {
+            // nothing to shoot at, sleep until the base sees a valid target coming or something changes
+            dormant = true;
+            dormantWakeCounter = base.getWakeCounter();
+            dormantTicks = 0;
+            base.watchForTargets();
+        }
+    }
+
+    /**
+     * Heads without a target search every turretTargetSearchTicks, after a failed search they go dormant
+     * until the base is woken up (see TurretBase.wakeUpTurrets), or turretDormantPollTicks have passed.
+     *
+     * @return if the head should look for a (new) target this tick
+     */
+    protected boolean isDueForTargetSearch() {
+        if (target != null) {
+            return true;
+        }
+        if (dormant) {
+            if (base != null && base.getWakeCounter() == dormantWakeCounter
+                    && dormantTicks++ < LoadGovernor.scaleInterval(OMTConfig.TURRETS.turretDormantPollTicks)) {
+                return false;
+            }
+            dormant = false;
+            return true;
+        }
+        if (targetingTicks < LoadGovernor.scaleInterval(OMTConfig.TURRETS.turretTargetSearchTicks)) {
+            targetingTicks++;
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isDormant() {
+        return dormant;
     }
 
     void concealmentChecks() {
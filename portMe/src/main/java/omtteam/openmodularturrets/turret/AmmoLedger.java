@@ -0,0 +1,320 @@
+package omtteam.openmodularturrets.turret;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+import omtteam.openmodularturrets.api.lists.AmmoList;
+import omtteam.openmodularturrets.init.ModItems;
+import omtteam.openmodularturrets.tileentity.Expander;
+import omtteam.openmodularturrets.tileentity.TurretBase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This Class keeps count of the ammo a turret base can reach: its own ammo slots and those of attached ammo expanders.
+ * For every ammo key (item and damage) it keeps the total count and the slots holding that key.
+ * Slots are only read again after they reported a change (see TurretBase and Expander onInventorySlotChanged),
+ * so availability checks and extraction never scan the inventories.
+ * Disposable turrets accept any item on the AmmoList, those slots are additionally kept under DISPOSABLE_KEY.
+ * Turrets reserve the ammo of a whole volley up front and commit only the rounds they actually fired (see Reservation).
+ */
+public class AmmoLedger {
+    private static final int SLOTS_PER_SOURCE = 9;
+    private static final int ALL_SLOTS = (1 << SLOTS_PER_SOURCE) - 1;
+    private static final long NO_KEY = Long.MAX_VALUE;
+    private static final long DISPOSABLE_KEY = Long.MIN_VALUE;
+
+    private final TurretBase base;
+    private final List<IItemHandler> sources = new ArrayList<>();
+    private final List<Expander> expanders = new ArrayList<>();
+    private final Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+    private final Long2IntOpenHashMap reserved = new Long2IntOpenHashMap();
+    private final Long2ObjectOpenHashMap<IntArrayList> slotsByKey = new Long2ObjectOpenHashMap<>();
+    private long[] slotKeys = new long[0];
+    private int[] slotCounts = new int[0];
+    private boolean[] slotDisposable = new boolean[0];
+    private int baseDirtySlots = ALL_SLOTS;
+    private int topologyVersion = -1;
+
+    public AmmoLedger(TurretBase base) {
+        this.base = base;
+    }
+
+    public static long getKey(ItemStack stack) {
+        return ((long) Item.getIdFromItem(stack.getItem()) << 32) | (stack.getItemDamage() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param template the ammo a turret asks for
+     * @return the key the template is counted under, DISPOSABLE_KEY for the disposable turrets' ammo
+     */
+    public static long getRequestKey(ItemStack template) {
+        if (template.getItem() == ModItems.ammoMetaItem && template.getItemDamage() == 5) {
+            return DISPOSABLE_KEY;
+        }
+        return getKey(template);
+    }
+
+    /**
+     * Marks one of the base's own ammo slots as changed.
+     */
+    public void markDirty(int slot) {
+        if (slot < SLOTS_PER_SOURCE) {
+            baseDirtySlots |= 1 << slot;
+        }
+    }
+
+    /**
+     * @param key the ammo key (see getRequestKey())
+     * @return how many items of that key are available, reserved items are not counted
+     */
+    public int getCount(long key) {
+        validate();
+        return counts.get(key) - reserved.get(key);
+    }
+
+    public int getCount(ItemStack template) {
+        return getCount(getRequestKey(template));
+    }
+
+    /**
+     * Removes amount items of the given key, either all of them or nothing.
+     *
+     * @param key    the ammo key (see getRequestKey())
+     * @param amount how many items to remove
+     * @return true if the items were removed
+     */
+    public boolean extract(long key, int amount) {
+        if (getCount(key) < amount) {
+            return false;
+        }
+        return extractUpTo(key, amount) >= amount;
+    }
+
+    /**
+     * Sets aside rounds items of key for a volley, they stay in the inventories until the reservation is committed.
+     * An active reservation is rolled back first.
+     *
+     * @param reservation the (reused) reservation of a turret
+     * @param key         the ammo key (see getRequestKey())
+     * @param rounds      how many items the volley may use
+     * @return true if enough items were available
+     */
+    public boolean reserve(Reservation reservation, long key, int rounds) {
+        rollback(reservation);
+        if (getCount(key) < rounds) {
+            return false;
+        }
+        reserved.addTo(key, rounds);
+        reservation.set(key, rounds, false);
+        return true;
+    }
+
+    /**
+     * Starts a volley that does not use up any items (e.g. the recycler addon negated the ammo usage).
+     */
+    public void reserveFree(Reservation reservation) {
+        rollback(reservation);
+        reservation.set(0, 0, true);
+    }
+
+    /**
+     * Removes the items of the rounds actually fired and frees the rest of the reservation.
+     *
+     * @param reservation the reservation to commit
+     * @param used        how many rounds were fired
+     */
+    public void commit(Reservation reservation, int used) {
+        if (!reservation.active) {
+            return;
+        }
+        long key = reservation.key;
+        int rounds = reservation.rounds;
+        boolean free = reservation.free;
+        rollback(reservation);
+        if (!free) {
+            extractUpTo(key, Math.min(used, rounds));
+        }
+    }
+
+    /**
+     * Frees a reservation without removing any items.
+     */
+    public void rollback(Reservation reservation) {
+        if (!reservation.active) {
+            return;
+        }
+        if (reservation.rounds > 0 && reserved.addTo(reservation.key, -reservation.rounds) <= reservation.rounds) {
+            reserved.remove(reservation.key);
+        }
+        reservation.active = false;
+    }
+
+    private int extractUpTo(long key, int amount) {
+        validate();
+        IntArrayList slots = slotsByKey.get(key);
+        if (amount <= 0 || slots == null) {
+            return 0;
+        }
+        int todo = amount;
+        // iterate backwards, a slot emptied by the extraction is removed from this list
+        for (int i = slots.size() - 1; i >= 0 && todo > 0; i--) {
+            int index = slots.getInt(i);
+            int take = Math.min(slotCounts[index], todo);
+            todo -= sources.get(index / SLOTS_PER_SOURCE).extractItem(index % SLOTS_PER_SOURCE, take, false).getCount();
+            readSlot(index);
+            clearDirty(index);
+            i = Math.min(i, slots.size());
+        }
+        return amount - todo;
+    }
+
+    private void clearDirty(int index) {
+        if (index < SLOTS_PER_SOURCE) {
+            baseDirtySlots &= ~(1 << index);
+        }
+        // expanders are polled on the next validate(), re-reading the slot there is harmless
+    }
+
+    private void validate() {
+        BaseTopology topology = base.getTopology();
+        List<Expander> attached = topology.getExpanders();
+        if (topology.getVersion() != topologyVersion) {
+            topologyVersion = topology.getVersion();
+            rebuild(attached);
+            return;
+        }
+        if (baseDirtySlots != 0) {
+            readSlots(0, baseDirtySlots);
+            baseDirtySlots = 0;
+        }
+        for (int i = 0; i < expanders.size(); i++) {
+            int dirty = expanders.get(i).pollDirtyAmmoSlots();
+            if (dirty != 0) {
+                readSlots(i + 1, dirty);
+            }
+        }
+    }
+
+    private void rebuild(List<Expander> attached) {
+        sources.clear();
+        expanders.clear();
+        counts.clear();
+        slotsByKey.clear();
+        sources.add(base.getInventory());
+        for (Expander expander : attached) {
+            if (!expander.isPowerExpander()) {
+                expanders.add(expander);
+                sources.add(expander.getInventory());
+            }
+        }
+        int size = sources.size() * SLOTS_PER_SOURCE;
+        if (slotKeys.length < size) {
+            slotKeys = new long[size];
+            slotCounts = new int[size];
+            slotDisposable = new boolean[size];
+        }
+        for (int i = 0; i < size; i++) {
+            slotKeys[i] = NO_KEY;
+            slotCounts[i] = 0;
+            slotDisposable[i] = false;
+        }
+        for (int i = 0; i < sources.size(); i++) {
+            readSlots(i, ALL_SLOTS);
+        }
+        for (Expander expander : expanders) {
+            expander.pollDirtyAmmoSlots();
+        }
+        baseDirtySlots = 0;
+    }
+
+    private void readSlots(int source, int mask) {
+        for (int slot = 0; slot < SLOTS_PER_SOURCE; slot++) {
+            if ((mask & (1 << slot)) != 0) {
+                readSlot(source * SLOTS_PER_SOURCE + slot);
+            }
+        }
+    }
+
+    private void readSlot(int index) {
+        IItemHandler source = sources.get(index / SLOTS_PER_SOURCE);
+        int slot = index % SLOTS_PER_SOURCE;
+        ItemStack stack = slot < source.getSlots() ? source.getStackInSlot(slot) : ItemStack.EMPTY;
+        long key = stack.isEmpty() ? NO_KEY : getKey(stack);
+        int count = stack.isEmpty() ? 0 : stack.getCount();
+        if (key != slotKeys[index]) {
+            if (slotKeys[index] != NO_KEY) {
+                remove(slotKeys[index], index);
+                if (slotDisposable[index]) {
+                    remove(DISPOSABLE_KEY, index);
+                }
+            }
+            slotKeys[index] = key;
+            slotCounts[index] = 0;
+            slotDisposable[index] = key != NO_KEY && AmmoList.contains(stack);
+            if (key != NO_KEY) {
+                add(key, index);
+                if (slotDisposable[index]) {
+                    add(DISPOSABLE_KEY, index);
+                }
+            }
+        }
+        if (key != NO_KEY) {
+            int delta = count - slotCounts[index];
+            counts.addTo(key, delta);
+            if (slotDisposable[index]) {
+                counts.addTo(DISPOSABLE_KEY, delta);
+            }
+        }
+        slotCounts[index] = count;
+    }
+
+    private void add(long key, int index) {
+        IntArrayList slots = slotsByKey.get(key);
+        if (slots == null) {
+            slots = new IntArrayList(4);
+            slotsByKey.put(key, slots);
+        }
+        slots.add(index);
+    }
+
+    /**
+     * This Class is the ammo a turret set aside for its current volley.
+     * Turrets keep one instance and reuse it for every volley.
+     */
+    public static final class Reservation {
+        private long key;
+        private int rounds;
+        private boolean free;
+        private boolean active;
+
+        private void set(long key, int rounds, boolean free) {
+            this.key = key;
+            this.rounds = rounds;
+            this.free = free;
+            this.active = true;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    private void remove(long key, int index) {
+        counts.addTo(key, -slotCounts[index]);
+        if (counts.get(key) <= 0) {
+            counts.remove(key);
+        }
+        IntArrayList slots = slotsByKey.get(key);
+        if (slots != null) {
+            slots.rem(index);
+            if (slots.isEmpty()) {
+                slotsByKey.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.item.ItemStack;
+import omtteam.openmodularturrets.tileentity.TurretBase;
+import omtteam.openmodularturrets.util.EnumSlotType;
+
+import java.util.List;
+
+/**
+ * This Class is an immutable snapshot of the upgrade and addon totals of a turret base.
+ * A new snapshot is built whenever an upgrade or addon slot of the base changes (see TurretBase.getStats()),
+ * so readers can compare snapshots by identity to know if derived values are still valid.
+ * Upgrade counts are raw item counts, the per turret type factors are applied in TurretHeadUtil.
+ */
+public final class BaseStats {
+    public static final BaseStats EMPTY = new BaseStats(0, 0, 0, 0, 0, 0, false, false, false, false, false, -1);
+
+    private final int accuracyUpgrades;
+    private final int efficiencyUpgrades;
+    private final int fireRateUpgrades;
+    private final int rangeUpgrades;
+    private final int scattershotUpgrades;
+    private final int ampLevel;
+    private final boolean redstoneReactor;
+    private final boolean concealmentAddon;
+    private final boolean solarPanelAddon;
+    private final boolean serialPortAddon;
+    private final boolean recyclerAddon;
+    private final int fakeDropsLevel;
+
+    private BaseStats(int accuracyUpgrades, int efficiencyUpgrades, int fireRateUpgrades, int rangeUpgrades,
+                      int scattershotUpgrades, int ampLevel, boolean redstoneReactor, boolean concealmentAddon,
+                      boolean solarPanelAddon, boolean serialPortAddon, boolean recyclerAddon, int fakeDropsLevel) {
+        this.accuracyUpgrades = accuracyUpgrades;
+        this.efficiencyUpgrades = efficiencyUpgrades;
+        this.fireRateUpgrades = fireRateUpgrades;
+        this.rangeUpgrades = rangeUpgrades;
+        this.scattershotUpgrades = scattershotUpgrades;
+        this.ampLevel = ampLevel;
+        this.redstoneReactor = redstoneReactor;
+        this.concealmentAddon = concealmentAddon;
+        this.solarPanelAddon = solarPanelAddon;
+        this.serialPortAddon = serialPortAddon;
+        this.recyclerAddon = recyclerAddon;
+        this.fakeDropsLevel = fakeDropsLevel;
+    }
+
+    /**
+     * Scans the upgrade and addon slots of a base.
+     *
+     * @param base the base
+     * @return a new snapshot of the base
+     */
+    public static BaseStats of(TurretBase base) {
+        int[] upgrades = new int[5];
+        List<Integer> upgradeSlots = base.getSlotMap().get(EnumSlotType.UpgradeSlot);
+        if (upgradeSlots != null) {
+            for (int i : upgradeSlots) {
+                ItemStack stack = base.getInventory().getStackInSlot(i);
+                if (stack != ItemStack.EMPTY && stack.getItemDamage() >= 0 && stack.getItemDamage() < upgrades.length) {
+                    upgrades[stack.getItemDamage()] += stack.getCount();
+                }
+            }
+        }
+
+        int ampLevel = 0;
+        boolean redstoneReactor = false;
+        List<Integer> addonSlots = base.getSlotMap().get(EnumSlotType.AddonSlot);
+        if (addonSlots != null) {
+            for (int i : addonSlots) {
+                ItemStack stack = base.getInventory().getStackInSlot(i);
+                if (stack != ItemStack.EMPTY) {
+                    if (stack.getItemDamage() == 1) {
+                        ampLevel += stack.getCount();
+                    } else if (stack.getItemDamage() == 4) {
+                        redstoneReactor = true;
+                    }
+                }
+            }
+        }
+
+        boolean concealment = false, solarPanel = false, serialPort = false, recycler = false;
+        int fakeDropsLevel = -1;
+        if (base.getTier() != 1) {
+            for (int i = 9; i <= 10; i++) {
+                ItemStack stack = base.getInventory().getStackInSlot(i);
+                if (stack == ItemStack.EMPTY) {
+                    continue;
+                }
+                switch (stack.getItemDamage()) {
+                    case 0:
+                        concealment = true;
+                        break;
+                    case 3:
+                        recycler = true;
+                        break;
+                    case 5:
+                        serialPort = true;
+                        break;
+                    case 6:
+                        solarPanel = true;
+                        break;
+                    case 7:
+                        fakeDropsLevel += stack.getCount();
+                        break;
+                }
+            }
+        }
+        return new BaseStats(upgrades[0], upgrades[1], upgrades[2], upgrades[3], upgrades[4], ampLevel, redstoneReactor,
+                             concealment, solarPanel, serialPort, recycler, Math.min(fakeDropsLevel, 3));
+    }
+
+    public int getAccuracyUpgrades() {
+        return accuracyUpgrades;
+    }
+
+    public int getEfficiencyUpgrades() {
+        return efficiencyUpgrades;
+    }
+
+    public int getFireRateUpgrades() {
+        return fireRateUpgrades;
+    }
+
+    public int getRangeUpgrades() {
+        return rangeUpgrades;
+    }
+
+    public int getScattershotUpgrades() {
+        return scattershotUpgrades;
+    }
+
+    public int getAmpLevel() {
+        return ampLevel;
+    }
+
+    public boolean hasRedstoneReactor() {
+        return redstoneReactor;
+    }
+
+    public boolean hasConcealmentAddon() {
+        return concealmentAddon;
+    }
+
+    public boolean hasSolarPanelAddon() {
+        return solarPanelAddon;
+    }
+
+    public boolean hasSerialPortAddon() {
+        return serialPortAddon;
+    }
+
+    public boolean hasRecyclerAddon() {
+        return recyclerAddon;
+    }
+
+    public int getFakeDropsLevel() {
+        return fakeDropsLevel;
+    }
+}
@@ -0,0 +1,157 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.EnumFacing;
+import omtteam.omlib.api.permission.TrustedPlayer;
+import omtteam.omlib.network.PacketBatcher;
+import omtteam.omlib.util.camo.CamoSettings;
+import omtteam.omlib.util.player.Player;
+import omtteam.openmodularturrets.client.gui.containers.TurretBaseContainer;
+import omtteam.openmodularturrets.handler.config.OMTConfig;
+import omtteam.openmodularturrets.network.messages.MessageTurretBase;
+import omtteam.openmodularturrets.tileentity.TurretBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.WeakHashMap;
+
+/**
+ * This Class remembers what each player with an open GUI of a turret base was last sent.
+ * Every sync compares the fields of each group of MessageTurretBase with the values the player was last sent
+ * and only sends the groups that changed, at most every OMTConfig.BASES.baseSyncInterval ticks per player.
+ * Numeric groups are packed into a long, owner, camo and trust list are compared by their actual values.
+ * Players looking at the base's inventory GUI (which shows the exact RF) get exact energy, everyone else a percentage.
+ * A player that was not synced in the previous tick closed the GUI in between and gets everything again.
+ */
+public class BaseSyncTracker {
+    private static final int GROUPS = 8;
+
+    private final TurretBase base;
+    private final Map<EntityPlayerMP, PlayerState> players = new WeakHashMap<>();
+    private final long[] current = new long[GROUPS];
+
+    public BaseSyncTracker(TurretBase base) {
+        this.base = base;
+    }
+
+    /**
+     * Sends the changes since the last sync to the player, if any and the rate cap allows it.
+     * Calling this more than once per tick for the same player does nothing.
+     *
+     * @param player the player with an open GUI of the base
+     */
+    public void sync(EntityPlayerMP player) {
+        long time = base.getWorld().getTotalWorldTime();
+        PlayerState state = players.get(player);
+        if (state == null || state.lastRequest < time - 1) {
+            state = new PlayerState();
+            players.put(player, state);
+        } else if (state.lastRequest == time) {
+            return;
+        }
+        state.lastRequest = time;
+        if (time - state.lastSend < OMTConfig.BASES.baseSyncInterval) {
+            return;
+        }
+
+        boolean exactEnergy = wantsExactEnergy(player);
+        snapshot(exactEnergy);
+        int mask = 0;
+        for (int group = 0; group < GROUPS; group++) {
+            if (!state.sent || state.values[group] != current[group]) {
+                mask |= 1 << group;
+            }
+        }
+        Player owner = base.getOwner();
+        IBlockState camoState = base.getCamoSettings().getCamoBlockState();
+        List<TrustedPlayer> trustedPlayers = base.getTrustManager().getTrustedPlayers();
+        if (!state.sent || !isSameOwner(owner, state)) {
+            mask |= MessageTurretBase.OWNER;
+        }
+        if (!state.sent || camoState != state.camoState) {
+            mask |= MessageTurretBase.CAMO;
+        }
+        if (!state.sent || !isSameTrust(trustedPlayers, state.trustedPlayers)) {
+            mask |= MessageTurretBase.TRUST;
+        }
+        if (mask == 0) {
+            return;
+        }
+        PacketBatcher.queue(new MessageTurretBase(base, mask, exactEnergy), player);
+        System.arraycopy(current, 0, state.values, 0, GROUPS);
+        if ((mask & MessageTurretBase.OWNER) != 0) {
+            state.ownerUuid = owner == null ? null : owner.getUuid();
+            state.ownerName = owner == null ? null : owner.getName();
+            state.ownerTeam = owner == null ? null : owner.getTeamName();
+        }
+        state.camoState = camoState;
+        if ((mask & MessageTurretBase.TRUST) != 0) {
+            state.trustedPlayers.clear();
+            for (TrustedPlayer trustedPlayer : trustedPlayers) {
+                TrustedPlayer copy = new TrustedPlayer(trustedPlayer.getName());
+                copy.setUuid(trustedPlayer.getUuid());
+                copy.setAccessLevel(trustedPlayer.getAccessLevel());
+                state.trustedPlayers.add(copy);
+            }
+        }
+        state.sent = true;
+        state.lastSend = time;
+    }
+
+    private boolean wantsExactEnergy(EntityPlayerMP player) {
+        return player.openContainer instanceof TurretBaseContainer && ((TurretBaseContainer) player.openContainer).getBase() == base;
+    }
+
+    private static boolean isSameOwner(Player owner, PlayerState state) {
+        return owner == null ? state.ownerUuid == null && state.ownerName == null
+                : Objects.equals(owner.getUuid(), state.ownerUuid) && Objects.equals(owner.getName(), state.ownerName)
+                && Objects.equals(owner.getTeamName(), state.ownerTeam);
+    }
+
+    private static boolean isSameTrust(List<TrustedPlayer> trustedPlayers, List<TrustedPlayer> sent) {
+        if (trustedPlayers.size() != sent.size()) {
+            return false;
+        }
+        for (int i = 0; i < sent.size(); i++) {
+            TrustedPlayer trustedPlayer = trustedPlayers.get(i);
+            TrustedPlayer sentPlayer = sent.get(i);
+            if (!Objects.equals(trustedPlayer.getName(), sentPlayer.getName())
+                    || !Objects.equals(trustedPlayer.getUuid(), sentPlayer.getUuid())
+                    || trustedPlayer.getAccessLevel() != sentPlayer.getAccessLevel()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the group index is the bit of the group in MessageTurretBase, owner, camo block and trust are compared in sync()
+    private void snapshot(boolean exactEnergy) {
+        int stored = base.getEnergyStored(EnumFacing.DOWN);
+        int max = base.getMaxEnergyStored(EnumFacing.DOWN);
+        CamoSettings camoSettings = base.getCamoSettings();
+
+        current[0] = base.getTier();
+        current[2] = (long) max << 32 | (exactEnergy ? stored & 0xFFFFFFFFL : 0x100000000L | MessageTurretBase.getEnergyPercentage(stored, max));
+        current[3] = (base.isAttacksMobs() ? 1 : 0) | (base.isAttacksNeutrals() ? 2 : 0) | (base.isAttacksPlayers() ? 4 : 0)
+                | (base.isMultiTargeting() ? 8 : 0) | base.getMode().ordinal() << 4;
+        current[4] = (long) base.getRange() << 32 | (base.getMaxRange() & 0xFFFFFFFFL);
+        current[5] = (long) base.getKills() << 32 | (base.getPlayerKills() & 0xFFFFFFFFL);
+        current[6] = (long) camoSettings.getLightValue() << 32 | (camoSettings.getLightOpacity() & 0xFFFFFFFFL);
+    }
+
+    private static class PlayerState {
+        private final long[] values = new long[GROUPS];
+        private final List<TrustedPlayer> trustedPlayers = new ArrayList<>();
+        private UUID ownerUuid;
+        private String ownerName;
+        private String ownerTeam;
+        private IBlockState camoState;
+        private boolean sent;
+        private long lastRequest = Long.MIN_VALUE;
+        private long lastSend = Long.MIN_VALUE / 2;
+    }
+}
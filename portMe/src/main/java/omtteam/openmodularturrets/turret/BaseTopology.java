@@ -0,0 +1,196 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import omtteam.openmodularturrets.blocks.BlockBaseAttachment;
+import omtteam.openmodularturrets.tileentity.BaseAddon;
+import omtteam.openmodularturrets.tileentity.Expander;
+import omtteam.openmodularturrets.tileentity.TurretBase;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static omtteam.openmodularturrets.blocks.BlockBaseAttachment.BASE_ADDON_META;
+
+/**
+ * This Class tracks what is attached to the six sides of a turret base: turret heads, expanders and base addons.
+ * Sides are marked dirty from the base's neighborChanged and from attached tile entities being loaded (see notifyBase()),
+ * only dirty sides are looked up again on the next read. Attached tile entities that became invalid (broken, chunk unloaded)
+ * are noticed on read as well, so readers never have to touch the world.
+ */
+public class BaseTopology {
+    private static final int ALL_SIDES = 0x3F;
+
+    private final TurretBase base;
+    private final TurretHead[] heads = new TurretHead[6];
+    private final Expander[] expanders = new Expander[6];
+    private final BaseAddon[] addons = new BaseAddon[6];
+    private final List<TurretHead> headList = new ArrayList<>(6);
+    private final List<Expander> expanderList = new ArrayList<>(6);
+    private final Map<EnumFacing, TurretHead> headMap = new EnumMap<>(EnumFacing.class);
+    private final List<TurretHead> headListView = Collections.unmodifiableList(headList);
+    private final List<Expander> expanderListView = Collections.unmodifiableList(expanderList);
+    private final Map<EnumFacing, TurretHead> headMapView = Collections.unmodifiableMap(headMap);
+    private int lootDeleterSides;
+    private int dirtySides = ALL_SIDES;
+    private int version;
+
+    public BaseTopology(TurretBase base) {
+        this.base = base;
+    }
+
+    /**
+     * Tells the base next to pos (if any) that the tile entity at pos changed.
+     * Only loaded neighbours are looked at, so this is safe to call while a chunk loads.
+     *
+     * @param world the world
+     * @param pos   the position of the attached tile entity
+     */
+    public static void notifyBase(@Nullable World world, BlockPos pos) {
+        if (world == null) {
+            return;
+        }
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            BlockPos offsetPos = pos.offset(facing);
+            if (world.isBlockLoaded(offsetPos)) {
+                TileEntity tileEntity = world.getTileEntity(offsetPos);
+                if (tileEntity instanceof TurretBase) {
+                    ((TurretBase) tileEntity).getTopology().markDirty(facing.getOpposite());
+                }
+            }
+        }
+    }
+
+    public void markDirty() {
+        dirtySides = ALL_SIDES;
+    }
+
+    public void markDirty(EnumFacing side) {
+        dirtySides |= 1 << side.getIndex();
+    }
+
+    /**
+     * Marks the side facing neighbour dirty, does nothing if neighbour is not adjacent to the base.
+     */
+    public void markDirty(BlockPos neighbour) {
+        BlockPos pos = base.getPos();
+        EnumFacing side = EnumFacing.getFacingFromVector(neighbour.getX() - pos.getX(), neighbour.getY() - pos.getY(),
+                                                         neighbour.getZ() - pos.getZ());
+        if (pos.offset(side).equals(neighbour)) {
+            markDirty(side);
+        }
+    }
+
+    private void validate() {
+        for (int i = 0; i < 6; i++) {
+            if ((heads[i] != null && heads[i].isInvalid()) || (expanders[i] != null && expanders[i].isInvalid())
+                    || (addons[i] != null && addons[i].isInvalid())) {
+                dirtySides |= 1 << i;
+            }
+        }
+        if (dirtySides != 0) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        World world = base.getWorld();
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            int i = facing.getIndex();
+            if ((dirtySides & (1 << i)) == 0) {
+                continue;
+            }
+            heads[i] = null;
+            expanders[i] = null;
+            addons[i] = null;
+            lootDeleterSides &= ~(1 << i);
+            BlockPos offsetPos = base.getPos().offset(facing);
+            // unloaded sides stay empty until the attached tile entity loads and notifies us
+            if (world == null || !world.isBlockLoaded(offsetPos)) {
+                continue;
+            }
+            TileEntity tileEntity = world.getTileEntity(offsetPos);
+            if (tileEntity instanceof TurretHead) {
+                heads[i] = (TurretHead) tileEntity;
+            } else if (tileEntity instanceof Expander) {
+                expanders[i] = (Expander) tileEntity;
+            } else if (tileEntity instanceof BaseAddon) {
+                addons[i] = (BaseAddon) tileEntity;
+                IBlockState state = world.getBlockState(offsetPos);
+                if (state.getBlock() instanceof BlockBaseAttachment && state.getValue(BASE_ADDON_META) == 0) {
+                    lootDeleterSides |= 1 << i;
+                }
+            }
+        }
+        dirtySides = 0;
+        version++;
+
+        headList.clear();
+        expanderList.clear();
+        headMap.clear();
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            int i = facing.getIndex();
+            if (heads[i] != null) {
+                headList.add(heads[i]);
+                headMap.put(facing, heads[i]);
+            }
+            if (expanders[i] != null) {
+                expanderList.add(expanders[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the attached turret heads, the list must not be modified
+     */
+    public List<TurretHead> getHeads() {
+        validate();
+        return headListView;
+    }
+
+    public Map<EnumFacing, TurretHead> getHeadMap() {
+        validate();
+        return headMapView;
+    }
+
+    @Nullable
+    public TurretHead getHead(EnumFacing facing) {
+        validate();
+        return heads[facing.getIndex()];
+    }
+
+    /**
+     * @return the attached ammo and power expanders, the list must not be modified
+     */
+    public List<Expander> getExpanders() {
+        validate();
+        return expanderListView;
+    }
+
+    @Nullable
+    public Expander getExpander(EnumFacing facing) {
+        validate();
+        return expanders[facing.getIndex()];
+    }
+
+    /**
+     * @return a counter that changes whenever sides were looked up again
+     */
+    public int getVersion() {
+        validate();
+        return version;
+    }
+
+    public boolean hasLootDeleter() {
+        validate();
+        return lootDeleterSides != 0;
+    }
+}
@@ -0,0 +1,133 @@
+package omtteam.openmodularturrets.turret;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import omtteam.openmodularturrets.tileentity.TurretBase;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This Class memoizes line of sight results of all turret heads on one base for the current world tick.
+ * Entries are keyed by head position and entity id. Block changes inside the range box of the base
+ * and chunks loaded or unloaded there drop all entries (see OMTEventHandler).
+ */
+public class LineOfSightCache {
+    private static final Map<Integer, List<LineOfSightCache>> activeCaches = new HashMap<>();
+    private static final byte MISSING = -1;
+
+    private final TurretBase base;
+    private final Long2ByteOpenHashMap entries = new Long2ByteOpenHashMap();
+    private long tick = -1;
+    private long traces;
+    private long voxelsStepped;
+
+    public LineOfSightCache(TurretBase base) {
+        this.base = base;
+        this.entries.defaultReturnValue(MISSING);
+    }
+
+    /**
+     * Called at the start of every world tick, caches filled in the last tick are stale anyway.
+     *
+     * @param world the ticking world
+     */
+    public static void onWorldTick(World world) {
+        List<LineOfSightCache> caches = activeCaches.get(world.provider.getDimension());
+        if (caches != null) {
+            caches.clear();
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        List<LineOfSightCache> caches = activeCaches.remove(world.provider.getDimension());
+        if (caches != null) {
+            for (LineOfSightCache cache : caches) {
+                cache.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Called for every block change, drops the entries of all caches whose base range covers the position.
+     *
+     * @param world the world of the change
+     * @param pos   the changed position
+     */
+    public static void onBlockChange(World world, BlockPos pos) {
+        invalidate(world, pos.getX(), pos.getY(), pos.getZ(), pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    /**
+     * Called when a chunk was loaded or unloaded, drops the entries of all caches whose base range touches the chunk.
+     */
+    public static void onChunkChanged(World world, int chunkX, int chunkZ) {
+        invalidate(world, chunkX << 4, 0, chunkZ << 4, (chunkX << 4) + 15, 255, (chunkZ << 4) + 15);
+    }
+
+    private static void invalidate(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        List<LineOfSightCache> caches = activeCaches.get(world.provider.getDimension());
+        if (caches == null) {
+            return;
+        }
+        for (int i = caches.size() - 1; i >= 0; i--) {
+            LineOfSightCache cache = caches.get(i);
+            BlockPos basePos = cache.base.getPos();
+            int range = cache.base.getRange() + 2;
+            if (cache.base.getWorld() == world
+                    && maxX >= basePos.getX() - range && minX <= basePos.getX() + range
+                    && maxY >= basePos.getY() - range && minY <= basePos.getY() + range
+                    && maxZ >= basePos.getZ() - range && minZ <= basePos.getZ() + range) {
+                cache.entries.clear();
+                caches.remove(i);
+            }
+        }
+    }
+
+    // heads are always adjacent to the base, so the offset fits in 2 bits per axis
+    private long getKey(TurretHead turret, EntityLivingBase entity) {
+        BlockPos pos = turret.getPos();
+        BlockPos basePos = base.getPos();
+        int offset = (pos.getX() - basePos.getX() + 1) | (pos.getY() - basePos.getY() + 1) << 2
+                | (pos.getZ() - basePos.getZ() + 1) << 4;
+        return ((long) entity.getEntityId() << 6) | (offset & 0x3F);
+    }
+
+    /**
+     * Returns the cached line of sight result, tracing it if not yet known for this tick.
+     *
+     * @param turret the turret trying to see
+     * @param entity the entity to see
+     * @return if the turret can see the target.
+     */
+    public boolean canSee(TurretHead turret, EntityLivingBase entity) {
+        long worldTime = base.getWorld().getTotalWorldTime();
+        if (tick != worldTime) {
+            entries.clear();
+            tick = worldTime;
+        }
+        long key = getKey(turret, entity);
+        byte cached = entries.get(key);
+        if (cached != MISSING) {
+            return cached == 1;
+        }
+        if (entries.isEmpty()) {
+            activeCaches.computeIfAbsent(base.getWorld().provider.getDimension(), k -> new ArrayList<>()).add(this);
+        }
+        boolean result = TurretTargetingUtils.traceLineOfSight(turret, entity);
+        traces++;
+        voxelsStepped += LineOfSightTracer.get(base.getWorld()).getLastVoxelsStepped();
+        entries.put(key, (byte) (result ? 1 : 0));
+        return result;
+    }
+
+    public String getDebugInfo() {
+        return "LOS traces: " + traces + ", voxels stepped: " + voxelsStepped + ", cached sections: "
+                + LineOfSightTracer.get(base.getWorld()).getCachedSections();
+    }
+}
@@ -0,0 +1,247 @@
+package omtteam.openmodularturrets.turret;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This Class traces line of sight with a 3D DDA voxel walk over cached per chunk section bitsets.
+ * Solid full cubes block the view, non solid blocks only block it directly around the target (as the old ray trace did).
+ * Solid blocks that are no full cube (slabs, fences, stairs, ...) only block the view if the ray hits their bounding box,
+ * which is tested with collisionRayTrace for the few voxels of that kind on the way.
+ * Unloaded chunks are treated as opaque and never loaded.
+ * Sections are dropped on block changes, chunk loads and unloads (see OMTEventHandler) and rebuilt after SECTION_TTL ticks.
+ * The tracer of the client world is dropped when that world unloads.
+ */
+public class LineOfSightTracer {
+    private static final Map<Integer, LineOfSightTracer> tracers = new HashMap<>();
+    private static final int SECTION_TTL = 200;
+    private static LineOfSightTracer clientTracer;
+
+    private final World world;
+    private final Long2ObjectOpenHashMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    private int lastVoxelsStepped;
+    private long voxelsStepped;
+
+    private LineOfSightTracer(World world) {
+        this.world = world;
+    }
+
+    public static LineOfSightTracer get(World world) {
+        if (world.isRemote) {
+            if (clientTracer == null || clientTracer.world != world) {
+                clientTracer = new LineOfSightTracer(world);
+            }
+            return clientTracer;
+        }
+        LineOfSightTracer tracer = tracers.get(world.provider.getDimension());
+        if (tracer == null || tracer.world != world) {
+            tracer = new LineOfSightTracer(world);
+            tracers.put(world.provider.getDimension(), tracer);
+        }
+        return tracer;
+    }
+
+    @Nullable
+    private static LineOfSightTracer getIfPresent(World world) {
+        LineOfSightTracer tracer = world.isRemote ? clientTracer : tracers.get(world.provider.getDimension());
+        return tracer != null && tracer.world == world ? tracer : null;
+    }
+
+    public static void onBlockChange(World world, BlockPos pos) {
+        LineOfSightTracer tracer = getIfPresent(world);
+        if (tracer != null && pos.getY() >= 0 && pos.getY() < 256) {
+            tracer.sections.remove(getSectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+        }
+    }
+
+    /**
+     * Called when a chunk was loaded or unloaded.
+     */
+    public static void onChunkChanged(World world, int chunkX, int chunkZ) {
+        LineOfSightTracer tracer = getIfPresent(world);
+        if (tracer != null) {
+            for (int y = 0; y < 16; y++) {
+                tracer.sections.remove(getSectionKey(chunkX, y, chunkZ));
+            }
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        if (getIfPresent(world) == null) {
+            return;
+        }
+        if (world.isRemote) {
+            clientTracer = null;
+        } else {
+            tracers.remove(world.provider.getDimension());
+        }
+    }
+
+    private static long getSectionKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFL) << 42 | ((long) z & 0x3FFFFFL) << 20 | (y & 0xFFFFFL);
+    }
+
+    /**
+     * Walks all voxels between start and end.
+     *
+     * @param startX x of the trace start
+     * @param startY y of the trace start
+     * @param startZ z of the trace start
+     * @param endX   x of the trace end
+     * @param endY   y of the trace end
+     * @param endZ   z of the trace end
+     * @param ignore a block position that never blocks the view (the turret itself)
+     * @return if nothing blocks the view from start to end.
+     */
+    public boolean canSee(double startX, double startY, double startZ, double endX, double endY, double endZ, BlockPos ignore) {
+        int x = MathHelper.floor(startX), y = MathHelper.floor(startY), z = MathHelper.floor(startZ);
+        int endVoxelX = MathHelper.floor(endX), endVoxelY = MathHelper.floor(endY), endVoxelZ = MathHelper.floor(endZ);
+        double dx = endX - startX, dy = endY - startY, dz = endZ - startZ;
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        double deltaX = dx == 0 ? Double.MAX_VALUE : Math.abs(1D / dx);
+        double deltaY = dy == 0 ? Double.MAX_VALUE : Math.abs(1D / dy);
+        double deltaZ = dz == 0 ? Double.MAX_VALUE : Math.abs(1D / dz);
+        double maxX = dx == 0 ? Double.MAX_VALUE : deltaX * (stepX > 0 ? x + 1 - startX : startX - x);
+        double maxY = dy == 0 ? Double.MAX_VALUE : deltaY * (stepY > 0 ? y + 1 - startY : startY - y);
+        double maxZ = dz == 0 ? Double.MAX_VALUE : deltaZ * (stepZ > 0 ? z + 1 - startZ : startZ - z);
+        int remaining = Math.abs(endVoxelX - x) + Math.abs(endVoxelY - y) + Math.abs(endVoxelZ - z);
+        int steps = 0;
+        boolean visible = true;
+        Vec3d start = null, end = null;
+
+        while (true) {
+            if (x != ignore.getX() || y != ignore.getY() || z != ignore.getZ()) {
+                steps++;
+                int state = getVoxel(x, y, z);
+                boolean blocking = state == Section.OPAQUE || state == Section.PARTIAL || (state == Section.SOFT
+                        && Math.abs(x + 0.5D - endX) <= 1.5D && Math.abs(y + 0.5D - endY) <= 1.5D && Math.abs(z + 0.5D - endZ) <= 1.5D);
+                if (blocking && state != Section.OPAQUE) {
+                    // partial and soft blocks only block where the ray actually hits their bounding box
+                    if (start == null) {
+                        start = new Vec3d(startX, startY, startZ);
+                        end = new Vec3d(endX, endY, endZ);
+                    }
+                    BlockPos pos = new BlockPos(x, y, z);
+                    blocking = world.getBlockState(pos).collisionRayTrace(world, pos, start, end) != null;
+                }
+                if (blocking) {
+                    visible = false;
+                    break;
+                }
+            }
+            if (remaining-- <= 0) {
+                break;
+            }
+            if (maxX < maxY && maxX < maxZ) {
+                x += stepX;
+                maxX += deltaX;
+            } else if (maxY < maxZ) {
+                y += stepY;
+                maxY += deltaY;
+            } else {
+                z += stepZ;
+                maxZ += deltaZ;
+            }
+        }
+        lastVoxelsStepped = steps;
+        voxelsStepped += steps;
+        return visible;
+    }
+
+    private int getVoxel(int x, int y, int z) {
+        if (y < 0 || y > 255) {
+            return Section.CLEAR;
+        }
+        long key = getSectionKey(x >> 4, y >> 4, z >> 4);
+        Section section = sections.get(key);
+        if (section == null || section.builtTick + SECTION_TTL < world.getTotalWorldTime()) {
+            section = buildSection(x >> 4, y >> 4, z >> 4);
+            if (section == null) {
+                return Section.OPAQUE;
+            }
+            sections.put(key, section);
+        }
+        return section.get(x & 15, y & 15, z & 15);
+    }
+
+    @Nullable
+    private Section buildSection(int chunkX, int sectionY, int chunkZ) {
+        Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+        if (chunk == null) {
+            return null;
+        }
+        ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sectionY];
+        if (storage == Chunk.NULL_BLOCK_STORAGE || storage.isEmpty()) {
+            return new Section(world.getTotalWorldTime(), null);
+        }
+        Section section = new Section(world.getTotalWorldTime(), new long[128]);
+        for (int y = 0; y < 16; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    IBlockState state = storage.get(x, y, z);
+                    if (state.getMaterial().isSolid()) {
+                        section.set(x, y, z, state.isFullCube() ? Section.OPAQUE : Section.PARTIAL);
+                    } else if (state.getBlock().canCollideCheck(state, false)) {
+                        section.set(x, y, z, Section.SOFT);
+                    }
+                }
+            }
+        }
+        return section;
+    }
+
+    public int getLastVoxelsStepped() {
+        return lastVoxelsStepped;
+    }
+
+    public long getVoxelsStepped() {
+        return voxelsStepped;
+    }
+
+    public int getCachedSections() {
+        return sections.size();
+    }
+
+    /**
+     * Two bits per voxel of a 16x16x16 section: opaque, soft (non solid, but hit by ray traces)
+     * or partial (solid, but not a full cube).
+     */
+    private static class Section {
+        static final int CLEAR = 0;
+        static final int OPAQUE = 1;
+        static final int SOFT = 2;
+        static final int PARTIAL = 3;
+
+        @Nullable
+        private final long[] bits; // null for empty sections
+        private final long builtTick;
+
+        Section(long builtTick, @Nullable long[] bits) {
+            this.builtTick = builtTick;
+            this.bits = bits;
+        }
+
+        int get(int x, int y, int z) {
+            if (bits == null) {
+                return CLEAR;
+            }
+            int index = (y << 8 | z << 4 | x) << 1;
+            return (int) (bits[index >> 6] >>> (index & 63)) & 3;
+        }
+
+        void set(int x, int y, int z, int value) {
+            int index = (y << 8 | z << 4 | x) << 1;
+            bits[index >> 6] |= (long) value << (index & 63);
+        }
+    }
+}
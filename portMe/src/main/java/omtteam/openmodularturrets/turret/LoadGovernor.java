@@ -0,0 +1,96 @@
+package omtteam.openmodularturrets.turret;
+
+import omtteam.openmodularturrets.handler.config.OMTConfig;
+
+/**
+ * This Class measures the server time spent in turret code and lowers turret fidelity when it exceeds the configured budget.
+ * Timed paths are TurretBase.update, AbstractDirectedTurret.update, TurretProjectile.onUpdate and scheduled tasks.
+ * Levels go from 0 (full fidelity) to MAX_LEVEL, every level doubles search intervals, line of sight re-check
+ * and aim update intervals and halves the number of target candidates evaluated per base.
+ * Only to be used from the server thread.
+ */
+public class LoadGovernor {
+    public static final int MAX_LEVEL = 3;
+    private static final int RAISE_AFTER_TICKS = 20;
+    private static final int LOWER_AFTER_TICKS = 200;
+    private static final double SMOOTHING = 0.1D;
+    private static final int[] CANDIDATE_LIMITS = {Integer.MAX_VALUE, 32, 16, 8};
+
+    private static long tickNanos;
+    private static double averageMillis;
+    private static int level;
+    private static int ticksOverBudget;
+    private static int ticksUnderBudget;
+
+    public static long startTiming() {
+        return System.nanoTime();
+    }
+
+    public static void stopTiming(long start) {
+        tickNanos += System.nanoTime() - start;
+    }
+
+    public static void addTime(long nanos) {
+        tickNanos += nanos;
+    }
+
+    /**
+     * Called at the end of every server tick, updates the average and steps the level up or down.
+     */
+    public static void onServerTick() {
+        averageMillis += (tickNanos / 1_000_000D - averageMillis) * SMOOTHING;
+        tickNanos = 0;
+        if (!OMTConfig.GENERAL.loadGovernorEnabled) {
+            level = 0;
+            return;
+        }
+        double budget = OMTConfig.GENERAL.turretTickBudgetMillis;
+        if (averageMillis > budget) {
+            ticksUnderBudget = 0;
+            if (++ticksOverBudget >= RAISE_AFTER_TICKS && level < MAX_LEVEL) {
+                level++;
+                ticksOverBudget = 0;
+            }
+        } else if (averageMillis < budget / 2D) {
+            ticksOverBudget = 0;
+            if (++ticksUnderBudget >= LOWER_AFTER_TICKS && level > 0) {
+                level--;
+                ticksUnderBudget = 0;
+            }
+        } else {
+            ticksOverBudget = 0;
+            ticksUnderBudget = 0;
+        }
+    }
+
+    public static int getLevel() {
+        return level;
+    }
+
+    public static double getAverageMillis() {
+        return averageMillis;
+    }
+
+    /**
+     * @param ticks the interval at full fidelity
+     * @return the interval at the current level
+     */
+    public static int scaleInterval(int ticks) {
+        return ticks << level;
+    }
+
+    /**
+     * Spreads reduced work over ticks by the given seed (e.g. a position hash), so not all turrets skip the same ticks.
+     *
+     * @param worldTime the current world time
+     * @param seed      a per turret seed
+     * @return if work that is thinned out at higher levels should run this tick
+     */
+    public static boolean isDue(long worldTime, int seed) {
+        return level == 0 || ((worldTime + seed) & ((1 << level) - 1)) == 0;
+    }
+
+    public static int getCandidateLimit() {
+        return CANDIDATE_LIMITS[level];
+    }
+}
@@ -0,0 +1,157 @@
+package omtteam.openmodularturrets.turret;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import omtteam.omlib.network.PacketBatcher;
+import omtteam.openmodularturrets.handler.config.OMTConfig;
+import omtteam.openmodularturrets.network.messages.MessageUpdateTurret;
+import omtteam.openmodularturrets.tileentity.turrets.AbstractDirectedTurret;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static omtteam.openmodularturrets.compatibility.valkyrienwarfare.VWUtil.getTransformedBlockPos;
+
+/**
+ * This Class collects the turret heads whose rotation changed during a tick, one instance per (server) world.
+ * Heads queue themselves when their tracked target changed, or when their yaw or pitch moved more than
+ * OMTConfig.TURRETS.rotationSyncThreshold since the last sent value. Heads whose clients aim at their target
+ * on their own are not sent until the target changes, heads that do not move are not sent.
+ * At the end of the world tick every player gets one MessageUpdateTurret with all queued heads in chunks they watch.
+ * Angles are sent as 16 bit fractions of a full turn (see quantize()).
+ */
+public class RotationSync {
+    private static final Map<Integer, RotationSync> instances = new HashMap<>();
+
+    private final World world;
+    private final List<AbstractDirectedTurret> queued = new ArrayList<>();
+
+    private RotationSync(World world) {
+        this.world = world;
+    }
+
+    public static RotationSync get(World world) {
+        RotationSync sync = instances.get(world.provider.getDimension());
+        if (sync == null || sync.world != world) {
+            sync = new RotationSync(world);
+            instances.put(world.provider.getDimension(), sync);
+        }
+        return sync;
+    }
+
+    public static void onWorldTick(World world) {
+        RotationSync sync = instances.get(world.provider.getDimension());
+        if (sync != null && sync.world == world) {
+            sync.flush();
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        RotationSync sync = instances.get(world.provider.getDimension());
+        if (sync != null && sync.world == world) {
+            instances.remove(world.provider.getDimension());
+        }
+    }
+
+    /**
+     * @param angle an angle in degrees
+     * @return the angle as 16 bit fraction of a full turn
+     */
+    public static short quantize(float angle) {
+        float normalized = angle % 360F;
+        if (normalized < 0) {
+            normalized += 360F;
+        }
+        return (short) Math.round(normalized * 65536F / 360F);
+    }
+
+    public static float dequantize(short angle) {
+        return (angle & 0xFFFF) * 360F / 65536F;
+    }
+
+    /**
+     * @param threshold the threshold in degrees
+     * @return true if the quantized angles a and b are more than threshold apart
+     */
+    public static boolean exceedsThreshold(short a, short b, double threshold) {
+        int distance = Math.abs((short) (a - b));
+        return distance > threshold * 65536D / 360D;
+    }
+
+    /**
+     * Queues a head to be sent at the end of this tick, call only once until it was sent (see AbstractDirectedTurret).
+     */
+    public void queue(AbstractDirectedTurret turret) {
+        queued.add(turret);
+    }
+
+    private void flush() {
+        if (queued.isEmpty()) {
+            return;
+        }
+        Long2IntOpenHashMap batchIndices = new Long2IntOpenHashMap();
+        batchIndices.defaultReturnValue(-1);
+        List<MessageUpdateTurret.ChunkBatch> batches = new ArrayList<>();
+        List<LongArrayList> watchedChunks = new ArrayList<>();
+        for (AbstractDirectedTurret turret : queued) {
+            turret.markRotationSent();
+            if (turret.isInvalid()) {
+                continue;
+            }
+            BlockPos pos = getTransformedBlockPos(turret);
+            long key = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+            int index = batchIndices.get(key);
+            if (index < 0) {
+                index = batches.size();
+                batchIndices.put(key, index);
+                batches.add(new MessageUpdateTurret.ChunkBatch(pos.getX() >> 4, pos.getZ() >> 4));
+                watchedChunks.add(new LongArrayList(1));
+            }
+            batches.get(index).add(pos, turret.getSentYaw(), turret.getSentPitch(), turret.getSentTargetId());
+            // heads on ships are sent at their transformed position but tracked by their real chunk
+            long realChunk = ChunkPos.asLong(turret.getPos().getX() >> 4, turret.getPos().getZ() >> 4);
+            if (!watchedChunks.get(index).contains(realChunk)) {
+                watchedChunks.get(index).add(realChunk);
+            }
+        }
+        queued.clear();
+
+        PlayerChunkMap chunkMap = ((WorldServer) world).getPlayerChunkMap();
+        for (EntityPlayer player : world.playerEntities) {
+            if (!(player instanceof EntityPlayerMP)) {
+                continue;
+            }
+            MessageUpdateTurret message = null;
+            for (int i = 0; i < batches.size(); i++) {
+                if (isWatching(chunkMap, (EntityPlayerMP) player, watchedChunks.get(i))) {
+                    if (message == null) {
+                        message = new MessageUpdateTurret((float) OMTConfig.TURRETS.turretRotationSpeed);
+                    }
+                    message.add(batches.get(i));
+                }
+            }
+            if (message != null) {
+                PacketBatcher.queue(message, (EntityPlayerMP) player);
+            }
+        }
+    }
+
+    private static boolean isWatching(PlayerChunkMap chunkMap, EntityPlayerMP player, LongArrayList chunks) {
+        for (int i = 0; i < chunks.size(); i++) {
+            long chunk = chunks.getLong(i);
+            if (chunkMap.isPlayerWatchingChunk(player, (int) chunk, (int) (chunk >> 32))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
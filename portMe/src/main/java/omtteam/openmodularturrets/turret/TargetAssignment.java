@@ -0,0 +1,120 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.entity.EntityLivingBase;
+import omtteam.openmodularturrets.handler.config.OMTConfig;
+import omtteam.openmodularturrets.tileentity.TurretBase;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This Class assigns distinct targets to the turret heads of a multi targeting base.
+ * The candidates of the base are scored once per head, then a greedy pass repeatedly picks the best
+ * scoring free head / free entity pair. The result is published to the heads target fields.
+ * Assignments are recomputed every multiTargetReassignTicks ticks, or earlier when an assigned target is lost
+ * or no longer passes the filters.
+ */
+public class TargetAssignment {
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private final TurretBase base;
+    private final List<TurretHead> heads = new ArrayList<>(6);
+    private long[] scores = new long[0];
+    private long lastSolveTick = -1;
+
+    public TargetAssignment(TurretBase base) {
+        this.base = base;
+    }
+
+    /**
+     * Recomputes the assignment if the reassignment interval has passed.
+     */
+    public void update() {
+        long worldTime = base.getWorld().getTotalWorldTime();
+        if (lastSolveTick < 0 || worldTime - lastSolveTick >= OMTConfig.TURRETS.multiTargetReassignTicks) {
+            solve(worldTime);
+        }
+    }
+
+    /**
+     * Returns the target assigned to a head. The assigned target is checked against the filters again
+     * (line of sight, range, trust etc.), if it fails them the assignment is solved again (at most once per tick).
+     *
+     * @param turret the head asking for a target
+     * @return the assigned target, or null if no distinct target is left for this head.
+     */
+    public EntityLivingBase getAssignedTarget(TurretHead turret) {
+        if (isValid(turret, turret.target)) {
+            return turret.target;
+        }
+        long worldTime = base.getWorld().getTotalWorldTime();
+        if (lastSolveTick != worldTime) {
+            solve(worldTime);
+            // solving only assigns targets that passed the filters
+            return turret.target;
+        }
+        turret.target = null;
+        return null;
+    }
+
+    private boolean isValid(TurretHead turret, EntityLivingBase entity) {
+        return entity != null && !entity.isDead && entity.getHealth() > 0.0F
+                && base.getTargetFilterPipeline().isValidTarget(turret, entity);
+    }
+
+    private void solve(long worldTime) {
+        lastSolveTick = worldTime;
+        heads.clear();
+        for (TurretHead turret : base.getTopology().getHeads()) {
+            if (turret.getBase() == base) {
+                heads.add(turret);
+            }
+        }
+        List<EntityLivingBase> candidates = base.getTargetCandidates();
+        int headCount = heads.size();
+        int entityCount = candidates.size();
+        if (scores.length < headCount * entityCount) {
+            scores = new long[headCount * entityCount];
+        }
+
+        TargetFilterPipeline pipeline = base.getTargetFilterPipeline();
+        for (int h = 0; h < headCount; h++) {
+            TurretHead turret = heads.get(h);
+            TargetScorer scorer = turret.getTargetScorer();
+            double x = turret.getPos().getX(), y = turret.getPos().getY(), z = turret.getPos().getZ();
+            for (int e = 0; e < entityCount; e++) {
+                EntityLivingBase entity = candidates.get(e);
+                scores[h * entityCount + e] = pipeline.isValidTarget(turret, entity) ? scorer.score(entity, x, y, z) : INVALID;
+            }
+            turret.target = null;
+        }
+
+        // greedy: take the best remaining pair, then strike its head and entity
+        for (int round = 0; round < headCount; round++) {
+            long best = INVALID;
+            int bestHead = -1;
+            int bestEntity = -1;
+            for (int h = 0; h < headCount; h++) {
+                if (heads.get(h).target != null) {
+                    continue;
+                }
+                for (int e = 0; e < entityCount; e++) {
+                    long score = scores[h * entityCount + e];
+                    if (score != INVALID && (bestHead < 0 || score > best)) {
+                        best = score;
+                        bestHead = h;
+                        bestEntity = e;
+                    }
+                }
+            }
+            if (bestHead < 0) {
+                return;
+            }
+            heads.get(bestHead).target = candidates.get(bestEntity);
+            for (int h = 0; h < headCount; h++) {
+                scores[h * entityCount + bestEntity] = INVALID;
+            }
+        }
+    }
+}
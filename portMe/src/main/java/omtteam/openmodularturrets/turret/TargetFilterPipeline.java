@@ -0,0 +1,234 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.IEntityOwnable;
+import net.minecraft.entity.passive.EntityHorse;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import omtteam.omlib.handler.OMConfig;
+import omtteam.omlib.util.TargetingSettings;
+import omtteam.openmodularturrets.api.lists.MobBlacklist;
+import omtteam.openmodularturrets.api.network.IBaseController;
+import omtteam.openmodularturrets.api.targeting.ITargetFilter;
+import omtteam.openmodularturrets.handler.config.OMTConfig;
+import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
+import omtteam.openmodularturrets.util.OMTUtil;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+import static omtteam.omlib.util.player.PlayerUtil.*;
+
+/**
+ * This Class runs the checks deciding if a turret may target an entity.
+ * Every check is a stage with a relative cost, stages are always run cheapest first
+ * and the first rejecting stage ends the evaluation. Each stage counts how often it ran and rejected for this base.
+ * One instance exists per turret base, it combines the global filters with those of the bases controller.
+ */
+public class TargetFilterPipeline {
+    private static final List<ITargetFilter> globalFilters = new ArrayList<>();
+    private static int version = 0;
+
+    private Stage[] stages = new Stage[0];
+    private int builtVersion = -1;
+    private IBaseController builtController;
+
+    static {
+        registerFilter(new SimpleFilter("range", 5, (turret, entity) -> !TurretTargetingUtils.chebyshevDistance(turret, entity)));
+        registerFilter(new SimpleFilter("owned", 5, TargetFilterPipeline::isNotOwnedOrTamed));
+        registerFilter(new SimpleFilter("category", 5, TargetFilterPipeline::isInTargetedCategory));
+        registerFilter(new SimpleFilter("blacklist", 10, (turret, entity) -> !MobBlacklist.contains(entity)));
+        registerFilter(new SimpleFilter("turret", 10, (turret, entity) -> turret.isEntityValidTarget(entity)));
+        registerFilter(new SimpleFilter("player", 20, TargetFilterPipeline::isValidPlayerTarget));
+        registerFilter(new SimpleFilter("lineOfSight", 100, TurretTargetingUtils::canSeeTargetFromPos));
+    }
+
+    /**
+     * Register a stage that applies to all turrets.
+     *
+     * @param filter the stage to add
+     */
+    public static void registerFilter(ITargetFilter filter) {
+        globalFilters.add(filter);
+        version++;
+    }
+
+    /**
+     * Remove a previously registered global stage.
+     *
+     * @param filter the stage to remove
+     * @return true if removed successfully
+     */
+    @SuppressWarnings("unused")
+    public static boolean removeFilter(ITargetFilter filter) {
+        boolean removed = globalFilters.remove(filter);
+        if (removed) {
+            version++;
+        }
+        return removed;
+    }
+
+    public static List<ITargetFilter> getGlobalFilters() {
+        return Collections.unmodifiableList(globalFilters);
+    }
+
+    private static boolean isValidPlayerTarget(TurretHead turret, EntityLivingBase entity) {
+        if (entity instanceof EntityPlayerMP) {
+            EntityPlayerMP player = (EntityPlayerMP) entity;
+            return settings(turret).isTargetPlayers() && OMTConfig.TURRETS.globalCanTargetPlayers
+                    && !isPlayerTrusted(player, turret) // Check if player is trusted
+                    && !(isPlayerOP(player) && OMConfig.GENERAL.canOPAccessOwnedBlocks) // Check if player is OP and settings are set
+                    && OMTUtil.canDamagePlayer(player, turret.getBase()) // Check if we can damage the player
+                    && !player.isDead; // Do not target dead players
+        }
+        return true;
+    }
+
+    private static boolean isNotOwnedOrTamed(TurretHead turret, EntityLivingBase entity) {
+        if (entity instanceof IEntityOwnable) {
+            Entity entityOwned = ((IEntityOwnable) entity).getOwner();
+            if (entityOwned instanceof EntityPlayer) {
+                EntityPlayer owner = (EntityPlayer) entityOwned;
+                return !(isPlayerOwner(owner, turret) || isPlayerTrusted(owner, turret));
+            }
+        } else if (entity instanceof EntityHorse) {
+            return !((EntityHorse) entity).isTame();
+        }
+        return true;
+    }
+
+    private static boolean isInTargetedCategory(TurretHead turret, EntityLivingBase entity) {
+        return (TurretTargetingUtils.isEntityValidNeutral(turret, entity) && settings(turret).isTargetPassive())
+                || (TurretTargetingUtils.isEntityValidMob(turret, entity) && settings(turret).isTargetMobs())
+                || entity instanceof EntityPlayer;
+    }
+
+    private static TargetingSettings settings(TurretHead turret) {
+        return turret.getTargetingSettings();
+    }
+
+    /**
+     * Runs all stages for the entity, cheapest first.
+     *
+     * @param turret the turret trying to find a target
+     * @param entity the entity to test
+     * @return if the turret may target the entity
+     */
+    public boolean isValidTarget(TurretHead turret, EntityLivingBase entity) {
+        IBaseController controller = turret.getBase().getController();
+        if (builtVersion != version || builtController != controller) {
+            rebuild(controller);
+        }
+        for (Stage stage : stages) {
+            if (!stage.test(turret, entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rebuild(@Nullable IBaseController controller) {
+        List<ITargetFilter> filters = new ArrayList<>(globalFilters);
+        if (controller != null) {
+            filters.addAll(controller.getTargetFilters());
+        }
+        // every base counts for itself, stages of filters that are still there keep their counts.
+        // Controllers may hand out new filter instances on every call, those count as the same filter
+        // if they are of the same class and name as an old one
+        List<Stage> list = new ArrayList<>(filters.size());
+        boolean[] reused = new boolean[stages.length];
+        for (ITargetFilter filter : filters) {
+            Stage stage = null;
+            for (int i = 0; i < stages.length && stage == null; i++) {
+                if (!reused[i] && stages[i].getFilter() == filter) {
+                    reused[i] = true;
+                    stage = stages[i];
+                }
+            }
+            for (int i = 0; i < stages.length && stage == null; i++) {
+                ITargetFilter oldFilter = stages[i].getFilter();
+                if (!reused[i] && oldFilter.getClass() == filter.getClass() && oldFilter.getName().equals(filter.getName())) {
+                    reused[i] = true;
+                    stage = stages[i];
+                    stage.filter = filter;
+                }
+            }
+            list.add(stage != null ? stage : new Stage(filter));
+        }
+        list.sort(Comparator.comparingInt(stage -> stage.getFilter().getCost()));
+        this.stages = list.toArray(new Stage[0]);
+        this.builtVersion = version;
+        this.builtController = controller;
+    }
+
+    public List<String> getDebugInfo() {
+        List<String> debugInfo = new ArrayList<>();
+        for (Stage stage : stages) {
+            debugInfo.add("Filter " + stage.getFilter().getName() + ": ran " + stage.getHits() + ", rejected " + stage.getRejects());
+        }
+        return debugInfo;
+    }
+
+    public static class Stage {
+        private ITargetFilter filter;
+        private long hits;
+        private long rejects;
+
+        private Stage(ITargetFilter filter) {
+            this.filter = filter;
+        }
+
+        private boolean test(TurretHead turret, EntityLivingBase entity) {
+            hits++;
+            if (filter.isValidTarget(turret, entity)) {
+                return true;
+            }
+            rejects++;
+            return false;
+        }
+
+        public ITargetFilter getFilter() {
+            return filter;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getRejects() {
+            return rejects;
+        }
+    }
+
+    private static class SimpleFilter implements ITargetFilter {
+        private final String name;
+        private final int cost;
+        private final BiPredicate<TurretHead, EntityLivingBase> predicate;
+
+        private SimpleFilter(String name, int cost, BiPredicate<TurretHead, EntityLivingBase> predicate) {
+            this.name = name;
+            this.cost = cost;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+
+        @Override
+        public boolean isValidTarget(TurretHead turret, EntityLivingBase entity) {
+            return predicate.test(turret, entity);
+        }
+    }
+}
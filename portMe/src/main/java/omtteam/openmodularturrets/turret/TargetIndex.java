@@ -0,0 +1,341 @@
+package omtteam.openmodularturrets.turret;
+
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.SoundCategory;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * This Class keeps a per dimension grid of all living entities, keyed by chunk section.
+ * It is updated from entity join, chunk change and chunk unload events (see OMTEventHandler),
+ * removed entities are evicted through a world event listener registered for every indexed world.
+ * Turrets query it instead of running their own getEntitiesWithinAABB.
+ * Watchers can subscribe to a range and are told once when an entity enters one of its sections.
+ */
+public class TargetIndex {
+    private static final Map<Integer, TargetIndex> indices = new HashMap<>();
+    private static final long NOT_INDEXED = Long.MIN_VALUE;
+
+    private final World world;
+    private final Long2ObjectOpenHashMap<ArrayList<EntityLivingBase>> sections = new Long2ObjectOpenHashMap<>();
+    private final Int2LongOpenHashMap entitySections = new Int2LongOpenHashMap();
+    private final Long2ObjectOpenHashMap<ArrayList<IWatcher>> watchers = new Long2ObjectOpenHashMap<>();
+    private final RemovalListener removalListener = new RemovalListener();
+
+    private TargetIndex(World world) {
+        this.world = world;
+        this.entitySections.defaultReturnValue(NOT_INDEXED);
+        world.addEventListener(removalListener);
+    }
+
+    /**
+     * Returns the index of the given (server) world, creating it if necessary.
+     *
+     * @param world the world
+     * @return the index for the worlds dimension
+     */
+    public static TargetIndex get(World world) {
+        TargetIndex index = indices.get(world.provider.getDimension());
+        if (index == null || index.world != world) {
+            if (index != null) {
+                index.clear();
+            }
+            index = new TargetIndex(world);
+            indices.put(world.provider.getDimension(), index);
+        }
+        return index;
+    }
+
+    @Nullable
+    private static TargetIndex getIfPresent(World world) {
+        TargetIndex index = indices.get(world.provider.getDimension());
+        return index != null && index.world == world ? index : null;
+    }
+
+    public static void onEntityUpdate(EntityLivingBase entity, int chunkX, int chunkZ) {
+        if (!entity.getEntityWorld().isRemote) {
+            get(entity.getEntityWorld()).update(entity, chunkX, chunkZ);
+        }
+    }
+
+    public static void onChunkUnload(World world, int chunkX, int chunkZ) {
+        TargetIndex index = getIfPresent(world);
+        if (index != null) {
+            for (int y = 0; y < 16; y++) {
+                index.clearSection(getSectionKey(chunkX, y, chunkZ));
+            }
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        TargetIndex index = getIfPresent(world);
+        if (index != null) {
+            index.clear();
+            indices.remove(world.provider.getDimension());
+        }
+    }
+
+    private void clear() {
+        world.removeEventListener(removalListener);
+        sections.clear();
+        entitySections.clear();
+        watchers.clear();
+    }
+
+    private static long getSectionKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFL) << 42 | ((long) z & 0x3FFFFFL) << 20 | (y & 0xFFFFFL);
+    }
+
+    private static int getSectionY(double posY) {
+        return MathHelper.clamp(MathHelper.floor(posY / 16.0D), 0, 15);
+    }
+
+    private void update(EntityLivingBase entity, int chunkX, int chunkZ) {
+        long key = getSectionKey(chunkX, getSectionY(entity.posY), chunkZ);
+        long oldKey = entitySections.get(entity.getEntityId());
+        if (oldKey == key) {
+            return;
+        }
+        if (oldKey != NOT_INDEXED) {
+            removeFromSection(oldKey, entity);
+        }
+        ArrayList<EntityLivingBase> section = sections.get(key);
+        if (section == null) {
+            section = new ArrayList<>(4);
+            sections.put(key, section);
+        }
+        section.add(entity);
+        entitySections.put(entity.getEntityId(), key);
+
+        ArrayList<IWatcher> sectionWatchers = watchers.get(key);
+        if (sectionWatchers != null) {
+            // watchers usually unwatch (and thereby shrink this list) when notified
+            for (int i = sectionWatchers.size() - 1; i >= 0; i = Math.min(i, sectionWatchers.size()) - 1) {
+                sectionWatchers.get(i).onEntityEntered(entity);
+            }
+        }
+    }
+
+    /**
+     * Subscribes a watcher to all sections touching the range around center.
+     *
+     * @param center  the center of the watched range
+     * @param range   the range in blocks
+     * @param watcher the watcher to notify
+     */
+    public void watch(BlockPos center, int range, IWatcher watcher) {
+        forEachSection(center, range, key -> {
+            ArrayList<IWatcher> sectionWatchers = watchers.get(key);
+            if (sectionWatchers == null) {
+                sectionWatchers = new ArrayList<>(2);
+                watchers.put(key, sectionWatchers);
+            }
+            sectionWatchers.add(watcher);
+        });
+    }
+
+    /**
+     * Removes a watcher, center and range have to match those it was subscribed with.
+     */
+    public void unwatch(BlockPos center, int range, IWatcher watcher) {
+        forEachSection(center, range, key -> {
+            ArrayList<IWatcher> sectionWatchers = watchers.get(key);
+            if (sectionWatchers != null) {
+                sectionWatchers.remove(watcher);
+                if (sectionWatchers.isEmpty()) {
+                    watchers.remove(key);
+                }
+            }
+        });
+    }
+
+    private static void forEachSection(BlockPos center, int range, LongConsumer action) {
+        int minY = Math.max(0, (center.getY() - range - 1) >> 4);
+        int maxY = Math.min(15, (center.getY() + range + 1) >> 4);
+        for (int x = (center.getX() - range - 1) >> 4; x <= (center.getX() + range + 1) >> 4; x++) {
+            for (int z = (center.getZ() - range - 1) >> 4; z <= (center.getZ() + range + 1) >> 4; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    action.accept(getSectionKey(x, y, z));
+                }
+            }
+        }
+    }
+
+    private void remove(EntityLivingBase entity) {
+        long key = entitySections.remove(entity.getEntityId());
+        if (key != NOT_INDEXED) {
+            removeFromSection(key, entity);
+        }
+    }
+
+    private void removeFromSection(long key, EntityLivingBase entity) {
+        ArrayList<EntityLivingBase> section = sections.get(key);
+        if (section != null) {
+            int i = section.indexOf(entity);
+            if (i >= 0) {
+                removeAt(section, i);
+            }
+            if (section.isEmpty()) {
+                sections.remove(key);
+            }
+        }
+    }
+
+    private void clearSection(long key) {
+        ArrayList<EntityLivingBase> section = sections.remove(key);
+        if (section != null) {
+            for (EntityLivingBase entity : section) {
+                entitySections.remove(entity.getEntityId());
+            }
+        }
+    }
+
+    // swap remove, order inside a section does not matter
+    private static void removeAt(ArrayList<EntityLivingBase> section, int i) {
+        int last = section.size() - 1;
+        section.set(i, section.get(last));
+        section.remove(last);
+    }
+
+    /**
+     * Visits all living entities whose position is within range (chebyshev distance) of center.
+     * Sections are visited in rings of growing distance from the center section, so near entities come first.
+     * No objects are allocated while visiting.
+     *
+     * @param center  the center of the search
+     * @param range   the range in blocks
+     * @param visitor the visitor, return false from it to stop the search
+     */
+    public void visitInRange(BlockPos center, int range, IVisitor visitor) {
+        int centerX = center.getX() >> 4;
+        int centerY = center.getY() >> 4;
+        int centerZ = center.getZ() >> 4;
+        int rings = (range >> 4) + 1;
+        for (int ring = 0; ring <= rings; ring++) {
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    boolean onEdge = Math.abs(dx) == ring || Math.abs(dz) == ring;
+                    for (int dy = -ring; dy <= ring; dy += (onEdge || ring == 0) ? 1 : 2 * ring) {
+                        int y = centerY + dy;
+                        if (y < 0 || y > 15) {
+                            continue;
+                        }
+                        if (!visitSection(getSectionKey(centerX + dx, y, centerZ + dz), center, range, visitor)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean visitSection(long key, BlockPos center, int range, IVisitor visitor) {
+        ArrayList<EntityLivingBase> section = sections.get(key);
+        if (section == null) {
+            return true;
+        }
+        for (int i = section.size() - 1; i >= 0; i--) {
+            EntityLivingBase entity = section.get(i);
+            // dead entities stay in the world until the end of its entity update
+            if (!entity.isDead && Math.abs(entity.posX - center.getX()) <= range + 1 && Math.abs(entity.posY - center.getY()) <= range + 1
+                    && Math.abs(entity.posZ - center.getZ()) <= range + 1 && !visitor.visit(entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return entitySections.size();
+    }
+
+    /**
+     * Evicts entities once the world removes them (death, unloading, changing dimension).
+     */
+    private class RemovalListener implements IWorldEventListener {
+        @Override
+        public void onEntityRemoved(Entity entity) {
+            if (entity instanceof EntityLivingBase) {
+                remove((EntityLivingBase) entity);
+            }
+        }
+
+        @Override
+        public void onEntityAdded(Entity entity) {
+        }
+
+        @Override
+        public void notifyBlockUpdate(World world, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+        }
+
+        @Override
+        public void notifyLightSet(BlockPos pos) {
+        }
+
+        @Override
+        public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {
+        }
+
+        @Override
+        public void playSoundToAllNearExcept(@Nullable EntityPlayer player, SoundEvent sound, SoundCategory category,
+                                             double x, double y, double z, float volume, float pitch) {
+        }
+
+        @Override
+        public void playRecord(SoundEvent sound, BlockPos pos) {
+        }
+
+        @Override
+        public void spawnParticle(int particleID, boolean ignoreRange, double xCoord, double yCoord, double zCoord,
+                                  double xSpeed, double ySpeed, double zSpeed, int... parameters) {
+        }
+
+        @Override
+        public void spawnParticle(int id, boolean ignoreRange, boolean minimiseParticleLevel, double x, double y, double z,
+                                  double xSpeed, double ySpeed, double zSpeed, int... parameters) {
+        }
+
+        @Override
+        public void broadcastSound(int soundID, BlockPos pos, int data) {
+        }
+
+        @Override
+        public void playEvent(EntityPlayer player, int type, BlockPos blockPosIn, int data) {
+        }
+
+        @Override
+        public void sendBlockBreakProgress(int breakerId, BlockPos pos, int progress) {
+        }
+    }
+
+    @FunctionalInterface
+    public interface IWatcher {
+        /**
+         * @param entity the entity that entered a watched section
+         */
+        void onEntityEntered(EntityLivingBase entity);
+    }
+
+    @FunctionalInterface
+    public interface IVisitor {
+        /**
+         * @param entity the entity in range
+         * @return true to continue visiting, false to stop
+         */
+        boolean visit(EntityLivingBase entity);
+    }
+}
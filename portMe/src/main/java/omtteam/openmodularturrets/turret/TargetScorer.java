@@ -0,0 +1,58 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.player.EntityPlayer;
+
+/**
+ * This Class scores targets for one turret head, compiled once from the heads priority weights.
+ * The score is the product of all weighted priority terms (in the order of EnumTargetingPriority).
+ * In legacy mode it reproduces the old int arithmetic and cube root distance exactly,
+ * otherwise it uses squared distances and long arithmetic. Scoring allocates nothing.
+ */
+public final class TargetScorer {
+    private final int maxHpWeight;
+    private final int hpRemainingWeight;
+    private final int distanceWeight;
+    private final int armorWeight;
+    private final int playerWeight;
+    private final boolean legacy;
+
+    TargetScorer(int[] weights, boolean legacy) {
+        this.maxHpWeight = weights[EnumTargetingPriority.MAX_HP.ordinal()];
+        this.hpRemainingWeight = weights[EnumTargetingPriority.HP_REMAINING.ordinal()];
+        this.distanceWeight = weights[EnumTargetingPriority.DISTANCE.ordinal()];
+        this.armorWeight = weights[EnumTargetingPriority.ARMOR.ordinal()];
+        this.playerWeight = weights[EnumTargetingPriority.PLAYER.ordinal()];
+        this.legacy = legacy;
+    }
+
+    public boolean isLegacy() {
+        return legacy;
+    }
+
+    /**
+     * @param entity the entity to score
+     * @param x      x of the scoring origin
+     * @param y      y of the scoring origin
+     * @param z      z of the scoring origin
+     * @return the score of the entity, higher is better.
+     */
+    public long score(EntityLivingBase entity, double x, double y, double z) {
+        double dx = x - entity.posX, dy = y - entity.posY, dz = z - entity.posZ;
+        double distanceSq = dx * dx + dy * dy + dz * dz;
+        if (legacy) {
+            int score = (int) Math.floor(entity.getHealth()) * maxHpWeight;
+            score *= (int) Math.floor(entity.getMaxHealth() - entity.getHealth()) * hpRemainingWeight;
+            score *= (int) Math.floor(Math.cbrt(distanceSq)) * distanceWeight;
+            score *= (int) (Math.floor(entity.getTotalArmorValue()) + 1) * armorWeight;
+            score *= entity instanceof EntityPlayer ? 100 * playerWeight : -100;
+            return score;
+        }
+        long score = (long) Math.floor(entity.getHealth()) * maxHpWeight;
+        score *= (long) Math.floor(entity.getMaxHealth() - entity.getHealth()) * hpRemainingWeight;
+        score *= (long) distanceSq * distanceWeight;
+        score *= (long) (entity.getTotalArmorValue() + 1) * armorWeight;
+        score *= entity instanceof EntityPlayer ? 100L * playerWeight : -100L;
+        return score;
+    }
+}
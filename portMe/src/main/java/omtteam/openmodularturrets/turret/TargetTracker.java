@@ -0,0 +1,187 @@
+package omtteam.openmodularturrets.turret;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * This Class tracks the movement of entities that turrets are aiming at, one instance per (server) world.
+ * Every tracked entity has a small ring buffer of positions sampled at the end of each world tick,
+ * from which velocity and acceleration are estimated. All turrets aiming at the same entity share one track.
+ * Tracks no turret asked for in EXPIRE_TICKS ticks are dropped.
+ */
+public class TargetTracker {
+    private static final Map<Integer, TargetTracker> trackers = new HashMap<>();
+    private static final int EXPIRE_TICKS = 40;
+    private static final int SAMPLES = 4;
+    private static final double MAX_ACCELERATION = 0.1D;
+    private static final double ACCELERATION_TICKS = 5D;
+
+    private final World world;
+    private final Int2ObjectOpenHashMap<Track> tracks = new Int2ObjectOpenHashMap<>();
+
+    private TargetTracker(World world) {
+        this.world = world;
+    }
+
+    public static TargetTracker get(World world) {
+        TargetTracker tracker = trackers.get(world.provider.getDimension());
+        if (tracker == null || tracker.world != world) {
+            tracker = new TargetTracker(world);
+            trackers.put(world.provider.getDimension(), tracker);
+        }
+        return tracker;
+    }
+
+    public static void onWorldTick(World world) {
+        TargetTracker tracker = trackers.get(world.provider.getDimension());
+        if (tracker != null && tracker.world == world) {
+            tracker.sampleAll();
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        TargetTracker tracker = trackers.get(world.provider.getDimension());
+        if (tracker != null && tracker.world == world) {
+            trackers.remove(world.provider.getDimension());
+        }
+    }
+
+    /**
+     * Returns the track of an entity, starting to track it if necessary.
+     *
+     * @param entity the entity
+     * @return the (shared) track of the entity
+     */
+    public Track getTrack(EntityLivingBase entity) {
+        Track track = tracks.get(entity.getEntityId());
+        if (track == null || track.entity != entity) {
+            track = new Track(entity);
+            track.sample(world.getTotalWorldTime());
+            tracks.put(entity.getEntityId(), track);
+        }
+        track.lastQueried = world.getTotalWorldTime();
+        return track;
+    }
+
+    private void sampleAll() {
+        long worldTime = world.getTotalWorldTime();
+        Iterator<Int2ObjectMap.Entry<Track>> iterator = tracks.int2ObjectEntrySet().fastIterator();
+        while (iterator.hasNext()) {
+            Track track = iterator.next().getValue();
+            if (track.entity.isDead || track.entity.getEntityWorld() != world || worldTime - track.lastQueried > EXPIRE_TICKS) {
+                iterator.remove();
+            } else {
+                track.sample(worldTime);
+            }
+        }
+    }
+
+    public int size() {
+        return tracks.size();
+    }
+
+    /**
+     * The sampled positions of one entity. Velocities are in blocks per tick, accelerations in blocks per tick squared.
+     */
+    public static class Track {
+        private final EntityLivingBase entity;
+        private final double[] x = new double[SAMPLES];
+        private final double[] y = new double[SAMPLES];
+        private final double[] z = new double[SAMPLES];
+        private final long[] ticks = new long[SAMPLES];
+        private int newest = -1;
+        private int count = 0;
+        private long lastQueried;
+
+        private Track(EntityLivingBase entity) {
+            this.entity = entity;
+        }
+
+        private void sample(long worldTime) {
+            if (count > 0 && ticks[newest] == worldTime) {
+                return;
+            }
+            newest = (newest + 1) % SAMPLES;
+            x[newest] = entity.posX;
+            y[newest] = entity.posY;
+            z[newest] = entity.posZ;
+            ticks[newest] = worldTime;
+            count = Math.min(count + 1, SAMPLES);
+        }
+
+        private int index(int age) {
+            return (newest - age + SAMPLES) % SAMPLES;
+        }
+
+        private double velocity(double[] values, double current, double previous, int age) {
+            if (count <= age + 1) {
+                return current - previous;
+            }
+            int a = index(age), b = index(age + 1);
+            return (values[a] - values[b]) / (ticks[a] - ticks[b]);
+        }
+
+        private double acceleration(double[] values) {
+            if (count < 3) {
+                return 0D;
+            }
+            double v0 = velocity(values, 0, 0, 0);
+            double v1 = velocity(values, 0, 0, 1);
+            double dt = (ticks[index(0)] - ticks[index(2)]) / 2D;
+            double acceleration = (v0 - v1) / dt;
+            return Math.max(-MAX_ACCELERATION, Math.min(MAX_ACCELERATION, acceleration));
+        }
+
+        public double getVelocityX() {
+            return velocity(x, entity.posX, entity.prevPosX, 0);
+        }
+
+        public double getVelocityY() {
+            return velocity(y, entity.posY, entity.prevPosY, 0);
+        }
+
+        public double getVelocityZ() {
+            return velocity(z, entity.posZ, entity.prevPosZ, 0);
+        }
+
+        public double getAccelerationX() {
+            return acceleration(x);
+        }
+
+        public double getAccelerationY() {
+            return acceleration(y);
+        }
+
+        public double getAccelerationZ() {
+            return acceleration(z);
+        }
+
+        // the entity is assumed to keep accelerating for at most ACCELERATION_TICKS, then to move on at constant speed
+        private static double lead(double velocity, double acceleration, double time) {
+            double accelerating = Math.min(time, ACCELERATION_TICKS);
+            return velocity * time + acceleration * accelerating * (time - accelerating / 2D);
+        }
+
+        /**
+         * @param time the time in ticks
+         * @return the expected x displacement of the entity after the given time
+         */
+        public double getLeadX(double time) {
+            return lead(getVelocityX(), getAccelerationX(), time);
+        }
+
+        public double getLeadY(double time) {
+            return lead(getVelocityY(), getAccelerationY(), time);
+        }
+
+        public double getLeadZ(double time) {
+            return lead(getVelocityZ(), getAccelerationZ(), time);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package omtteam.openmodularturrets.turret;
+
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This Class schedules turret and base work for a later world tick, one instance per (server) world.
+ * It is a two level timing wheel: 64 slots of one tick, 64 slots of 64 ticks and an overflow list,
+ * entries move down a level when their slot comes up. Only due tasks are touched when dispatching.
+ * The time spent running tasks is measured, see getDebugInfo().
+ */
+public class TickScheduler {
+    private static final Map<Integer, TickScheduler> schedulers = new HashMap<>();
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int STAT_TICKS = 20;
+
+    private final World world;
+    private final List<List<Task>> fine = new ArrayList<>(SLOTS);
+    private final List<List<Task>> coarse = new ArrayList<>(SLOTS);
+    private List<Task> overflow = new ArrayList<>();
+    private List<Task> spare = new ArrayList<>();
+    private long currentTick;
+    private final long[] nanosPerTick = new long[STAT_TICKS];
+    private final int[] tasksPerTick = new int[STAT_TICKS];
+
+    private TickScheduler(World world) {
+        this.world = world;
+        this.currentTick = world.getTotalWorldTime();
+        for (int i = 0; i < SLOTS; i++) {
+            fine.add(new ArrayList<>());
+            coarse.add(new ArrayList<>());
+        }
+    }
+
+    public static TickScheduler get(World world) {
+        TickScheduler scheduler = schedulers.get(world.provider.getDimension());
+        if (scheduler == null || scheduler.world != world) {
+            scheduler = new TickScheduler(world);
+            schedulers.put(world.provider.getDimension(), scheduler);
+        }
+        return scheduler;
+    }
+
+    public static void onWorldTick(World world) {
+        TickScheduler scheduler = schedulers.get(world.provider.getDimension());
+        if (scheduler != null && scheduler.world == world) {
+            scheduler.dispatch(world.getTotalWorldTime());
+        }
+    }
+
+    public static void onWorldUnload(World world) {
+        TickScheduler scheduler = schedulers.get(world.provider.getDimension());
+        if (scheduler != null && scheduler.world == world) {
+            schedulers.remove(world.provider.getDimension());
+        }
+    }
+
+    /**
+     * Schedules a task, a task that is already scheduled is moved to the new tick.
+     *
+     * @param task  the task
+     * @param delay the delay in ticks, at least 1
+     */
+    public void schedule(Task task, long delay) {
+        task.dueTick = currentTick + Math.max(1, delay);
+        task.scheduled = true;
+        place(task);
+    }
+
+    private void place(Task task) {
+        long distance = task.dueTick - currentTick;
+        if (distance < SLOTS) {
+            fine.get((int) (task.dueTick & MASK)).add(task);
+        } else if (distance < SLOTS * SLOTS) {
+            coarse.get((int) ((task.dueTick >> BITS) & MASK)).add(task);
+        } else {
+            overflow.add(task);
+        }
+    }
+
+    // swaps the slot with an empty list, so tasks scheduling themselves again do not land in the list being walked
+    private List<Task> takeSlot(List<List<Task>> level, int index) {
+        List<Task> slot = level.get(index);
+        level.set(index, spare);
+        return slot;
+    }
+
+    private void cascade(List<Task> tasks) {
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            if (task.scheduled && task.dueTick > currentTick - 1) {
+                place(task);
+            }
+        }
+        tasks.clear();
+        spare = tasks;
+    }
+
+    private void dispatch(long worldTime) {
+        long start = System.nanoTime();
+        int dispatched = 0;
+        while (currentTick < worldTime) {
+            currentTick++;
+            if ((currentTick & MASK) == 0) {
+                if ((currentTick & (SLOTS * SLOTS - 1)) == 0) {
+                    List<Task> tasks = overflow;
+                    overflow = spare;
+                    cascade(tasks);
+                }
+                cascade(takeSlot(coarse, (int) ((currentTick >> BITS) & MASK)));
+            }
+            List<Task> tasks = takeSlot(fine, (int) (currentTick & MASK));
+            for (int i = 0; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                // stale entries of moved or cancelled tasks are dropped here
+                if (task.scheduled && task.dueTick == currentTick) {
+                    task.scheduled = false;
+                    task.action.run(currentTick);
+                    dispatched++;
+                }
+            }
+            tasks.clear();
+            spare = tasks;
+        }
+        int stat = (int) (worldTime % STAT_TICKS);
+        nanosPerTick[stat] = System.nanoTime() - start;
+        LoadGovernor.addTime(nanosPerTick[stat]);
+        tasksPerTick[stat] = dispatched;
+    }
+
+    public List<String> getDebugInfo() {
+        long nanos = 0;
+        int tasks = 0;
+        for (int i = 0; i < STAT_TICKS; i++) {
+            nanos += nanosPerTick[i];
+            tasks += tasksPerTick[i];
+        }
+        List<String> debugInfo = new ArrayList<>();
+        debugInfo.add(String.format("Scheduler: %.3f ms/tick, %d tasks in the last %d ticks", nanos / 1_000_000D / STAT_TICKS,
+                                    tasks, STAT_TICKS));
+        return debugInfo;
+    }
+
+    @FunctionalInterface
+    public interface ITaskAction {
+        void run(long worldTime);
+    }
+
+    /**
+     * A reusable scheduled callback, usually one per kind of work and tile entity.
+     */
+    public static final class Task {
+        private final ITaskAction action;
+        private long dueTick;
+        private boolean scheduled;
+
+        public Task(ITaskAction action) {
+            this.action = action;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        public long getDueTick() {
+            return dueTick;
+        }
+
+        public void cancel() {
+            scheduled = false;
+        }
+    }
+}
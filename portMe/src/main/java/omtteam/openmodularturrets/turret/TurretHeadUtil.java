@@ -1,10 +1,8 @@
 package omtteam.openmodularturrets.turret;
 
-import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
@@ -14,45 +12,34 @@ import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraft.util.text.TextFormatting;
 import net.minecraft.world.World;
 import net.minecraftforge.energy.CapabilityEnergy;
-import net.minecraftforge.items.IItemHandler;
 import omtteam.omlib.api.util.Tuple;
 import omtteam.omlib.power.OMEnergyStorage;
 import omtteam.omlib.util.RandomUtil;
 import omtteam.omlib.util.player.Player;
 import omtteam.omlib.util.world.Pos;
-import omtteam.omlib.util.world.WorldUtil;
-import omtteam.openmodularturrets.api.lists.AmmoList;
-import omtteam.openmodularturrets.blocks.BlockBaseAttachment;
 import omtteam.openmodularturrets.compatibility.ModCompatibility;
 import omtteam.openmodularturrets.handler.config.OMTConfig;
 import omtteam.openmodularturrets.init.ModSounds;
-import omtteam.openmodularturrets.items.AmmoMetaItem;
 import omtteam.openmodularturrets.reference.OMTNames;
 import omtteam.openmodularturrets.tileentity.Expander;
 import omtteam.openmodularturrets.tileentity.TurretBase;
 import omtteam.openmodularturrets.tileentity.turrets.TurretHead;
-import omtteam.openmodularturrets.util.EnumSlotType;
-import org.apache.commons.lang3.tuple.Triple;
 import valkyrienwarfare.api.IPhysicsEntity;
 import valkyrienwarfare.api.IPhysicsEntityManager;
 import valkyrienwarfare.api.TransformType;
 
 import javax.annotation.Nullable;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static omtteam.omlib.compatibility.OMLibModCompatibility.ComputerCraftLoaded;
 import static omtteam.omlib.compatibility.OMLibModCompatibility.OpenComputersLoaded;
-import static omtteam.omlib.util.inventory.InvUtil.getStackSize;
 import static omtteam.omlib.util.player.PlayerUtil.*;
-import static omtteam.openmodularturrets.blocks.BlockBaseAttachment.BASE_ADDON_META;
 
 public class TurretHeadUtil {
     private static final HashMap<Tuple<Player, BlockPos>, Long> warnedPlayers = new HashMap<>();
     //caching disposable fake item
-    private static final ItemStack disposableAmmoStack = new ItemStack(new AmmoMetaItem(), 1, 5);
 
     public static void warnPlayers(TurretBase base, World worldObj, BlockPos pos, int turretRange) {
         if (base.isAttacksPlayers()) {
@@ -94,9 +81,9 @@ public class TurretHeadUtil {
 
     public static int getPowerExpanderTotalExtraCapacity(TurretBase base) {
         int totalExtraCap = 0;
-        for (Map.Entry<EnumFacing, Expander> expanderEntry : base.getExpanderMap().entrySet()) {
-            if (expanderEntry.getValue() != null && expanderEntry.getValue().isPowerExpander()) {
-                totalExtraCap = totalExtraCap + getPowerExtenderCapacityValue(expanderEntry.getValue());
+        for (Expander expander : base.getTopology().getExpanders()) {
+            if (expander.isPowerExpander()) {
+                totalExtraCap = totalExtraCap + getPowerExtenderCapacityValue(expander);
             }
         }
         return totalExtraCap;
@@ -104,8 +91,6 @@ public class TurretHeadUtil {
 
     //TODO: write unit tests for this, note: almost impossible in 1.12, wait for port for 1.16 for this
     public static ItemStack deductItemStackFromInventories(ItemStack itemStack, TurretBase base, @Nullable TurretHead turretHead) {
-        List<Triple<IItemHandler, Integer, Integer>> foundMap = new ArrayList<>();
-        int foundCount = 0;
         if (hasRecyclerAddon(base) && turretHead != null) { //For negating ammo usage
             int chance = RandomUtil.random.nextInt(99);
 
@@ -113,42 +98,24 @@ public class TurretHeadUtil {
                 return itemStack.copy();
             }
         }
-        for (IItemHandler inventory : base.getAmmoInventories()) {
-            for (int i = 0; i < inventory.getSlots(); i++) {
-                ItemStack ammoCheck = inventory.getStackInSlot(i);
-                // Second check if requested ammo is disposable ammo
-                boolean needDisposable = itemStack.isItemEqual(disposableAmmoStack);
-                if (ammoCheck != ItemStack.EMPTY && ammoCheck.isItemEqual(itemStack)
-                        || (needDisposable && AmmoList.contains(ammoCheck))) {
-                    foundMap.add(Triple.of(inventory, i, Math.min(ammoCheck.getCount(), itemStack.getCount())));
-                    foundCount += ammoCheck.getCount();
-                }
-                if (foundCount >= itemStack.getCount()) {
-                    break;
-                }
-            }
-            if (foundCount >= itemStack.getCount()) {
-                break;
-            }
-        }
-        foundCount = Math.min(foundCount, itemStack.getCount());
-
-        // remove items from inventories
-        if (foundCount == itemStack.getCount()) {
-            for (Triple<IItemHandler, Integer, Integer> entry : foundMap) {
-                int todo = foundCount;
-                entry.getLeft().extractItem(entry.getMiddle(), entry.getRight(), false);
-                todo -= entry.getRight();
-                if (todo == 0) break;
-            }
-        }
+        return base.getAmmoLedger().extract(AmmoLedger.getRequestKey(itemStack), itemStack.getCount()) ? itemStack : ItemStack.EMPTY;
+    }
 
-        return foundCount < itemStack.getCount() ? ItemStack.EMPTY : itemStack;
+    /**
+     * Reserves the ammo of a turret's volley, the recycler addon is rolled once for the whole volley.
+     *
+     * @return true if the volley may be fired
+     */
+    public static boolean reserveAmmo(TurretBase base, TurretHead turretHead, AmmoLedger.Reservation reservation, int rounds) {
+        if (hasRecyclerAddon(base)
+                && RandomUtil.random.nextInt(99) < turretHead.getTurretType().getSettings().recyclerNegateChance) {
+            base.getAmmoLedger().reserveFree(reservation);
+            return true;
+        }
+        return base.getAmmoLedger().reserve(reservation, AmmoLedger.getRequestKey(turretHead.getAmmo()), rounds);
     }
 
     public static int getAmmoLevel(TurretHead turret, TurretBase base) {
-        int result = 0;
-
         ItemStack ammoStackRequired = turret.getAmmo();
         if (!OMTConfig.TURRETS.doTurretsNeedAmmo && ammoStackRequired != null) {
             return Integer.MAX_VALUE;
@@ -156,27 +123,7 @@ public class TurretHeadUtil {
         if (ammoStackRequired == null) {
             return base.getEnergyStored(EnumFacing.DOWN) / turret.getTurretBasePowerUsage();
         }
-        for (int i = 0; i <= 8; i++) {
-            ItemStack ammoStack = base.getInventory().getStackInSlot(i);
-
-            if (ammoStack != ItemStack.EMPTY && getStackSize(ammoStack) > 0 && ammoStack.getItem() == ammoStackRequired.getItem()
-                    && ammoStack.getMetadata() == ammoStackRequired.getMetadata()) {
-                result += ammoStack.getCount();
-            }
-        }
-
-        for (TileEntity tileEntity : WorldUtil.getTouchingTileEntities(base.getWorld(), base.getPos())) {
-            if (tileEntity instanceof Expander && !((Expander) tileEntity).isPowerExpander()) {
-                Expander exp = (Expander) tileEntity;
-                for (int i = 0; i < exp.getInventory().getSlots(); i++) {
-                    ItemStack ammoStack = exp.getInventory().getStackInSlot(i);
-                    if (ammoStack != ItemStack.EMPTY && ammoStack.getItem() == ammoStackRequired.getItem()) {
-                        result += ammoStack.getCount();
-                    }
-                }
-            }
-        }
-        return result;
+        return base.getAmmoLedger().getCount(ammoStackRequired);
     }
 
     private static int getPowerExtenderCapacityValue(Expander expander) {
@@ -234,11 +181,18 @@ public class TurretHeadUtil {
         return null;
     }
 
+    public static Map<EnumFacing, TurretHead> getBaseTurrets(TurretBase base) {
+        return base.getTopology().getHeadMap();
+    }
+
     public static Map<EnumFacing, TurretHead> getBaseTurrets(World world, BlockPos pos) {
         Map<EnumFacing, TurretHead> map = new HashMap<>();
         if (world == null) {
             return map;
         }
+        if (world.getTileEntity(pos) instanceof TurretBase) {
+            return getBaseTurrets((TurretBase) world.getTileEntity(pos));
+        }
         for (EnumFacing facing : EnumFacing.values()) {
             BlockPos offsetPos = pos.offset(facing);
 
@@ -298,203 +252,67 @@ public class TurretHeadUtil {
     }
 
     public static int getRangeUpgrades(TurretBase base, TurretHead turretHead) {
-        int value = 0;
-        for (int i : base.getSlotMap().get(EnumSlotType.UpgradeSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 3) {
-                    value += (turretHead.getTurretType().getSettings().rangeUpgrade * getStackSize(base.getInventory().getStackInSlot(i)));
-                }
-            }
-        }
-
-        return value;
+        return turretHead.getTurretType().getSettings().rangeUpgrade * base.getStats().getRangeUpgrades();
     }
 
     public static int getScattershotUpgrades(TurretBase base) {
-        int value = 0;
-        for (int i : base.getSlotMap().get(EnumSlotType.UpgradeSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 4) {
-                    value += getStackSize(base.getInventory().getStackInSlot(i));
-                }
-            }
-        }
-
-        return value;
+        return base.getStats().getScattershotUpgrades();
     }
 
     public static float getAccuracyUpgrades(TurretBase base, TurretHead turretHead) {
-        float accuracy = 0.0F;
-        for (int i : base.getSlotMap().get(EnumSlotType.UpgradeSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 0) {
-                    accuracy += (turretHead.getTurretType().getSettings().accuracyUpgrade * getStackSize(base.getInventory().getStackInSlot(i)));
-                }
-            }
-        }
-
-        return accuracy;
+        return turretHead.getTurretType().getSettings().accuracyUpgrade * base.getStats().getAccuracyUpgrades();
     }
 
     public static float getEfficiencyUpgrades(TurretBase base, TurretHead turretHead) {
-        float efficiency = 0.0F;
-        for (int i : base.getSlotMap().get(EnumSlotType.UpgradeSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 1) {
-                    efficiency += (turretHead.getTurretType().getSettings().efficiencyUpgrade * getStackSize(base.getInventory().getStackInSlot(i)));
-                }
-            }
-        }
-
-        return efficiency;
+        return turretHead.getTurretType().getSettings().efficiencyUpgrade * base.getStats().getEfficiencyUpgrades();
     }
 
     public static float getFireRateUpgrades(TurretBase base, TurretHead turretHead) {
-        float rof = 0.0F;
-        for (int i : base.getSlotMap().get(EnumSlotType.UpgradeSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 2) {
-                    rof += (turretHead.getTurretType().getSettings().fireRateUpgrade * getStackSize(base.getInventory().getStackInSlot(i)));
-                }
-            }
-        }
-
-        return rof;
+        return turretHead.getTurretType().getSettings().fireRateUpgrade * base.getStats().getFireRateUpgrades();
     }
 
     public static boolean hasRedstoneReactor(TurretBase base) {
-        for (int i : base.getSlotMap().get(EnumSlotType.AddonSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 4) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return base.getStats().hasRedstoneReactor();
     }
 
     public static boolean hasConcealmentAddon(TurretBase base) {
-        boolean found = false;
         if (base.getTier() == 1) {
             return false;
         }
-
-        if (base.getInventory().getStackInSlot(9) != ItemStack.EMPTY) {
-            found = base.getInventory().getStackInSlot(9).getItemDamage() == 0;
-        }
-
-        if (base.getInventory().getStackInSlot(10) != ItemStack.EMPTY && !found) {
-            found = base.getInventory().getStackInSlot(10).getItemDamage() == 0;
-        }
-        return found || OMTConfig.TURRETS.canTurretsConcealWithoutAddon;
+        return base.getStats().hasConcealmentAddon() || OMTConfig.TURRETS.canTurretsConcealWithoutAddon;
     }
 
     public static boolean hasSolarPanelAddon(TurretBase base) {
-        boolean found = false;
-        if (base.getTier() == 1) {
-            return false;
-        }
-
-        if (base.getInventory().getStackInSlot(9) != ItemStack.EMPTY) {
-            found = base.getInventory().getStackInSlot(9).getItemDamage() == 6;
-        }
-
-        if (base.getInventory().getStackInSlot(10) != ItemStack.EMPTY && !found) {
-            found = base.getInventory().getStackInSlot(10).getItemDamage() == 6;
-        }
-        return found;
+        return base.getStats().hasSolarPanelAddon();
     }
 
     public static boolean hasSerialPortAddon(TurretBase base) {
-        boolean found = false;
-        if (base.getTier() == 1) {
-            return false;
-        }
         if (!OpenComputersLoaded && !ComputerCraftLoaded) {
             return false;
         }
-
-        if (base.getInventory().getStackInSlot(9) != ItemStack.EMPTY) {
-            found = base.getInventory().getStackInSlot(9).getItemDamage() == 5;
-        }
-
-        if (base.getInventory().getStackInSlot(10) != ItemStack.EMPTY && !found) {
-            found = base.getInventory().getStackInSlot(10).getItemDamage() == 5;
-        }
-        return found;
+        return base.getStats().hasSerialPortAddon();
     }
 
     private static boolean hasRecyclerAddon(TurretBase base) {
-        boolean found = false;
-        if (base.getTier() == 1) {
-            return false;
-        }
-        if (base.getInventory().getStackInSlot(9) != ItemStack.EMPTY) {
-            found = base.getInventory().getStackInSlot(9).getItemDamage() == 3;
-        }
-
-        if (base.getInventory().getStackInSlot(10) != ItemStack.EMPTY && !found) {
-            found = base.getInventory().getStackInSlot(10).getItemDamage() == 3;
-        }
-        return found;
+        return base.getStats().hasRecyclerAddon();
     }
 
     public static int getAmpLevel(TurretBase base) {
-        int amp_level = 0;
-
         if (base == null) {
-            return amp_level;
-        }
-
-        for (int i : base.getSlotMap().get(EnumSlotType.AddonSlot)) {
-            if (base.getInventory().getStackInSlot(i) != ItemStack.EMPTY) {
-                if (base.getInventory().getStackInSlot(i).getItemDamage() == 1) {
-                    amp_level += getStackSize(base.getInventory().getStackInSlot(i));
-                }
-            }
+            return 0;
         }
-
-        return amp_level;
+        return base.getStats().getAmpLevel();
     }
 
     public static int getFakeDropsLevel(TurretBase base) {
-        int fakeDropsLevel = -1;
-
         if (base == null) {
-            return fakeDropsLevel;
-        }
-
-        int tier = base.getTier();
-
-        if (tier == 1) {
-            return fakeDropsLevel;
+            return -1;
         }
-
-        if (base.getInventory().getStackInSlot(9) != ItemStack.EMPTY) {
-            if (base.getInventory().getStackInSlot(9).getItemDamage() == 7) {
-                fakeDropsLevel += getStackSize(base.getInventory().getStackInSlot(9));
-            }
-        }
-
-        if (base.getInventory().getStackInSlot(10) != ItemStack.EMPTY) {
-            if (base.getInventory().getStackInSlot(10).getItemDamage() == 7) {
-                fakeDropsLevel += getStackSize(base.getInventory().getStackInSlot(10));
-            }
-        }
-
-        return Math.min(fakeDropsLevel, 3);
+        return base.getStats().getFakeDropsLevel();
     }
 
     public static boolean baseHasNoLootDeleter(TurretBase base) {
-        List<IBlockState> states = WorldUtil.getTouchingBlockStates(base.getWorld(), base.getPos());
-        for (IBlockState state : states) {
-            if (state.getBlock() instanceof BlockBaseAttachment) {
-                if (state.getValue(BASE_ADDON_META) == 0) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return !base.getTopology().hasLootDeleter();
     }
 
     public static void updateSolarPanelAddon(TurretBase base) {
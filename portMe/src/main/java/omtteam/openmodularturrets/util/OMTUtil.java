@@ -21,6 +21,7 @@ import omtteam.openmodularturrets.turret.TurretType;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -95,9 +96,11 @@ public class OMTUtil {
 
     public static int getRemainingTurretSlots(@Nonnull TurretBase base, @Nullable TurretType turret) {
         int numberOfTurretsRemaining = 1000;
+        List<TurretHead> heads = base.getTopology().getHeads();
+        int headCount = heads.size();
         if (turret != null) {
             numberOfTurretsRemaining = turret.getSettings().maxSimultaneous;
-            for (TurretHead turretHead : TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).values()) {
+            for (TurretHead turretHead : heads) {
                 if (turret.getInternalName().equals(turretHead.getTurretType().getInternalName())) {
                     numberOfTurretsRemaining--;
                 }
@@ -106,20 +109,20 @@ public class OMTUtil {
 
         switch (base.getTier()) {
             case 1:
-                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierOne.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size()) :
-                        Math.max(0, Math.min(OMTConfig.BASES.baseTierOne.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size(), numberOfTurretsRemaining));
+                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierOne.baseMaxTurrets - headCount) :
+                        Math.max(0, Math.min(OMTConfig.BASES.baseTierOne.baseMaxTurrets - headCount, numberOfTurretsRemaining));
             case 2:
-                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierTwo.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size()) :
-                        Math.max(0, Math.min(OMTConfig.BASES.baseTierTwo.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size(), numberOfTurretsRemaining));
+                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierTwo.baseMaxTurrets - headCount) :
+                        Math.max(0, Math.min(OMTConfig.BASES.baseTierTwo.baseMaxTurrets - headCount, numberOfTurretsRemaining));
             case 3:
-                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierThree.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size()) :
-                        Math.max(0, Math.min(OMTConfig.BASES.baseTierThree.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size(), numberOfTurretsRemaining));
+                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierThree.baseMaxTurrets - headCount) :
+                        Math.max(0, Math.min(OMTConfig.BASES.baseTierThree.baseMaxTurrets - headCount, numberOfTurretsRemaining));
             case 4:
-                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierFour.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size()) :
-                        Math.max(0, Math.min(OMTConfig.BASES.baseTierFour.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size(), numberOfTurretsRemaining));
+                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierFour.baseMaxTurrets - headCount) :
+                        Math.max(0, Math.min(OMTConfig.BASES.baseTierFour.baseMaxTurrets - headCount, numberOfTurretsRemaining));
             case 5:
-                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierFive.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size()) :
-                        Math.max(0, Math.min(OMTConfig.BASES.baseTierFive.baseMaxTurrets - TurretHeadUtil.getBaseTurrets(base.getWorld(), base.getPos()).size(), numberOfTurretsRemaining));
+                return numberOfTurretsRemaining == 1000 ? Math.max(0, OMTConfig.BASES.baseTierFive.baseMaxTurrets - headCount) :
+                        Math.max(0, Math.min(OMTConfig.BASES.baseTierFive.baseMaxTurrets - headCount, numberOfTurretsRemaining));
         }
         return 0;
     }
@@ -0,0 +1,45 @@
+package omtteam.openmodularturrets.util.command;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import omtteam.openmodularturrets.handler.config.OMTConfig;
+import omtteam.openmodularturrets.turret.LoadGovernor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import static omtteam.omlib.util.player.PlayerUtil.addChatMessage;
+
+/**
+ * Command for showing how much time turrets use and at which fidelity level they currently run.
+ */
+public class CommandTurretLoad extends CommandBase {
+    @Override
+    @Nonnull
+    public String getName() {
+        return "omtload";
+    }
+
+    @Override
+    @Nonnull
+    @ParametersAreNonnullByDefault
+    public String getUsage(ICommandSender sender) {
+        return "/omtload";
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public void execute(MinecraftServer server, ICommandSender sender, String[] params) {
+        addChatMessage(sender, new TextComponentString(String.format(
+                "Turret load: %.2f ms/tick (budget %.2f ms), degradation level %d/%d%s",
+                LoadGovernor.getAverageMillis(), OMTConfig.GENERAL.turretTickBudgetMillis, LoadGovernor.getLevel(),
+                LoadGovernor.MAX_LEVEL, OMTConfig.GENERAL.loadGovernorEnabled ? "" : " (governor disabled)")));
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+}
@@ -0,0 +1,25 @@
+package omtteam.openmodularturrets.network.messages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+final class MessageTestHelper {
+    private MessageTestHelper() {
+    }
+
+    /**
+     * Decodes buf into message, which has to read all of it, and checks that encoding the message writes the same bytes.
+     */
+    static void assertRoundTrip(ByteBuf buf, IMessage message) {
+        ByteBuf expected = buf.copy();
+        message.fromBytes(buf);
+        assertFalse(buf.isReadable());
+        ByteBuf encoded = Unpooled.buffer();
+        message.toBytes(encoded);
+        assertEquals(expected, encoded);
+    }
+}
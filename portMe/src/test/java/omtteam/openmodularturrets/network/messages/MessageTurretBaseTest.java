@@ -0,0 +1,88 @@
+package omtteam.openmodularturrets.network.messages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import omtteam.omlib.api.permission.EnumAccessLevel;
+import omtteam.omlib.util.EnumMachineMode;
+import omtteam.omlib.util.player.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static omtteam.openmodularturrets.network.messages.MessageTestHelper.assertRoundTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MessageTurretBaseTest {
+
+    @Test
+    void partialMask() {
+        ByteBuf buf = header(MessageTurretBase.ENERGY | MessageTurretBase.RANGE);
+        buf.writeBoolean(false);
+        buf.writeInt(50000);
+        buf.writeByte(37);
+        buf.writeInt(12);
+        buf.writeInt(20);
+        assertRoundTrip(buf, new MessageTurretBase());
+    }
+
+    @Test
+    void exactEnergy() {
+        ByteBuf buf = header(MessageTurretBase.ENERGY);
+        buf.writeBoolean(true);
+        buf.writeInt(50000);
+        buf.writeInt(12345);
+        assertRoundTrip(buf, new MessageTurretBase());
+    }
+
+    @Test
+    void allGroups() {
+        ByteBuf buf = header(MessageTurretBase.ALL);
+        buf.writeByte(3);
+        Player.writeToByteBuf(new Player(UUID.randomUUID(), "owner", "team"), buf);
+        buf.writeBoolean(true);
+        buf.writeInt(50000);
+        buf.writeInt(12345);
+        buf.writeByte(1 | 4 | 8);
+        buf.writeByte(EnumMachineMode.values().length - 1);
+        buf.writeInt(12);
+        buf.writeInt(20);
+        buf.writeInt(7);
+        buf.writeInt(2);
+        buf.writeInt(15);
+        buf.writeInt(0);
+        ByteBufUtils.writeUTF8String(buf, "minecraft:stone");
+        buf.writeInt(1);
+        buf.writeInt(2);
+        for (int i = 0; i < 2; i++) {
+            ByteBufUtils.writeUTF8String(buf, "trusted" + i);
+            UUID uuid = UUID.randomUUID();
+            buf.writeLong(uuid.getMostSignificantBits());
+            buf.writeLong(uuid.getLeastSignificantBits());
+            buf.writeByte(EnumAccessLevel.values()[i].ordinal());
+        }
+        assertRoundTrip(buf, new MessageTurretBase());
+    }
+
+    @Test
+    void noGroups() {
+        assertRoundTrip(header(0), new MessageTurretBase());
+    }
+
+    @Test
+    void energyPercentage() {
+        assertEquals(25, MessageTurretBase.getEnergyPercentage(50, 200));
+        assertEquals(0, MessageTurretBase.getEnergyPercentage(50, 0));
+        assertEquals(100, MessageTurretBase.getEnergyPercentage(300, 200));
+        assertEquals(50, MessageTurretBase.getEnergyPercentage(Integer.MAX_VALUE / 2, Integer.MAX_VALUE - 1));
+    }
+
+    private static ByteBuf header(int mask) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeInt(-120);
+        buf.writeInt(64);
+        buf.writeInt(3000);
+        buf.writeByte(mask);
+        return buf;
+    }
+}
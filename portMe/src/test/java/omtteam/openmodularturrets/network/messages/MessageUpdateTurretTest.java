@@ -0,0 +1,66 @@
+package omtteam.openmodularturrets.network.messages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.util.math.BlockPos;
+import omtteam.openmodularturrets.turret.RotationSync;
+import org.junit.jupiter.api.Test;
+
+import static omtteam.openmodularturrets.network.messages.MessageTestHelper.assertRoundTrip;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageUpdateTurretTest {
+
+    @Test
+    void untrackedHead() {
+        MessageUpdateTurret message = new MessageUpdateTurret(30F);
+        MessageUpdateTurret.ChunkBatch batch = new MessageUpdateTurret.ChunkBatch(-3, 7);
+        batch.add(new BlockPos(-33, 255, 127), RotationSync.quantize(90F), RotationSync.quantize(-45F), -1);
+        message.add(batch);
+
+        ByteBuf buf = Unpooled.buffer();
+        message.toBytes(buf);
+        // speed, batch count, chunk, entry count and one head with a single byte varint for the missing target
+        assertEquals(2 + 2 + 8 + 2 + 6 + 1, buf.readableBytes());
+        assertRoundTrip(buf, new MessageUpdateTurret());
+    }
+
+    @Test
+    void severalChunksAndTargets() {
+        MessageUpdateTurret message = new MessageUpdateTurret(12.5F);
+        for (int chunk = 0; chunk < 3; chunk++) {
+            MessageUpdateTurret.ChunkBatch batch = new MessageUpdateTurret.ChunkBatch(chunk * 1000, -chunk);
+            // more heads than the initial capacity of a batch
+            for (int i = 0; i < 10; i++) {
+                batch.add(new BlockPos(chunk * 16000 + i, i * 20, -chunk * 16 + 15 - i), RotationSync.quantize(i * 36F),
+                          RotationSync.quantize(-i * 9F), i % 3 == 0 ? -1 : i * 123456);
+            }
+            message.add(batch);
+        }
+        ByteBuf buf = Unpooled.buffer();
+        message.toBytes(buf);
+        assertRoundTrip(buf, new MessageUpdateTurret());
+    }
+
+    @Test
+    void emptyMessage() {
+        ByteBuf buf = Unpooled.buffer();
+        new MessageUpdateTurret(30F).toBytes(buf);
+        assertRoundTrip(buf, new MessageUpdateTurret());
+    }
+
+    @Test
+    void quantizedAngles() {
+        for (float angle = -720F; angle <= 720F; angle += 7.3F) {
+            float expected = ((angle % 360F) + 360F) % 360F;
+            float distance = Math.abs(RotationSync.dequantize(RotationSync.quantize(angle)) - expected);
+            assertTrue(Math.min(distance, 360F - distance) <= 360F / 65536F, "angle " + angle);
+        }
+        assertEquals(RotationSync.quantize(270F), RotationSync.quantize(-90F));
+        // the distance wraps around at 0 degrees
+        assertTrue(RotationSync.exceedsThreshold(RotationSync.quantize(359F), RotationSync.quantize(1F), 1D));
+        assertFalse(RotationSync.exceedsThreshold(RotationSync.quantize(359F), RotationSync.quantize(1F), 3D));
+    }
+}